@@ -0,0 +1,45 @@
+package com.mall.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mall.dto.ApiResponse;
+import com.mall.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品分页响应的 JSON 序列化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<Page<Product>> response;
+
+    @Setup
+    public void setup() {
+        // 与 Spring MVC 消息转换器相同的默认配置
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Page<Product> page = new PageImpl<>(BenchmarkSupport.products(pageSize, BenchmarkSupport.category(1L)),
+                PageRequest.of(0, pageSize), 10_000);
+        response = ApiResponse.success(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
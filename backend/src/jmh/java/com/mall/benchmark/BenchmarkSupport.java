@@ -0,0 +1,74 @@
+package com.mall.benchmark;
+
+import com.mall.entity.Category;
+import com.mall.entity.Product;
+import com.mall.entity.User;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试公共数据
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 为没有 Spring 容器的组件注入 {@code @Value} 字段
+     */
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setPassword("$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iKTVKIFi");
+        user.setNickname("用户" + id);
+        user.setEmail("user" + id + "@mall.com");
+        return user;
+    }
+
+    static Category category(long id) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName("分类" + id);
+        category.setLevel(1);
+        return category;
+    }
+
+    static List<Product> products(int count, Category category) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("商品 " + i);
+            product.setSubtitle("商品副标题 " + i);
+            product.setMainImage("https://via.placeholder.com/400x400?text=" + i);
+            product.setPrice(BigDecimal.valueOf(1000 + i * 7L, 2));
+            product.setOriginalPrice(BigDecimal.valueOf(1200 + i * 7L, 2));
+            product.setStock(100);
+            product.setSales(i % 50);
+            product.setCategory(category);
+            product.setKeywords("商品,分类" + category.getId());
+            product.setDescription("商品描述 " + i);
+            product.setCreateTime(now);
+            product.setUpdateTime(now);
+            products.add(product);
+        }
+        return products;
+    }
+}
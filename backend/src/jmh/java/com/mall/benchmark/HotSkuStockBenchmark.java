@@ -0,0 +1,70 @@
+package com.mall.benchmark;
+
+import com.mall.MallApplication;
+import com.mall.inventory.InventoryService;
+import com.mall.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程扣减同一热点商品的库存：经商品服务（每次在独立事务中预留、提交后确认）和直接调用库存账本，
+ * 已确认的扣减由定时回写批量写入内存 H2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class HotSkuStockBenchmark {
+
+    private static final long CATEGORY_ID = 3_000_001L;
+    private static final long PRODUCT_ID = 3_000_101L;
+
+    private static final String CATEGORY_SQL = "INSERT INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) VALUES (?, '热点', 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "INSERT INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) VALUES (?, '热点商品', 99.00, 109.00, ?, 0, 'ON_SALE', ?, '热点', 0, " +
+            "FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private InventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MallApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "logging.level.com.mall=WARN",
+                        "spring.jpa.show-sql=false", "mall.cache.redis.enabled=false")
+                .run();
+        productService = context.getBean(ProductService.class);
+        inventoryService = context.getBean(InventoryService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(CATEGORY_SQL, CATEGORY_ID, now, now);
+        jdbcTemplate.update(PRODUCT_SQL, PRODUCT_ID, Integer.MAX_VALUE, CATEGORY_ID, now, now);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deductHotSku() {
+        productService.updateStock(PRODUCT_ID, 1);
+    }
+
+    @Benchmark
+    public void deductHotSkuWithoutTransaction() {
+        inventoryService.deduct(PRODUCT_ID, null, 1);
+    }
+}
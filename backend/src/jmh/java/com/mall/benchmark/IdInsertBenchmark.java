@@ -0,0 +1,87 @@
+package com.mall.benchmark;
+
+import com.mall.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存 H2 中插入一批行：数据库自增主键（IDENTITY，Hibernate 只能逐行插入并取回主键）
+ * 与应用分配的 Snowflake 主键（按 hibernate.jdbc.batch_size 分批插入）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    private static final int JDBC_BATCH_SIZE = 20;
+
+    @Param({"1000"})
+    private int rows;
+
+    private Connection connection;
+    private SnowflakeIdGenerator idGenerator;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:id_bench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_rows (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100))");
+            statement.execute("CREATE TABLE assigned_rows (id BIGINT PRIMARY KEY, name VARCHAR(100))");
+        }
+        connection.setAutoCommit(false);
+        idGenerator = new SnowflakeIdGenerator(1, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identityInserts() throws SQLException {
+        long last = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO identity_rows (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, "row" + i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return last;
+    }
+
+    @Benchmark
+    public long snowflakeBatchInserts() throws SQLException {
+        long last = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO assigned_rows (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                last = idGenerator.nextId("assigned_rows");
+                insert.setLong(1, last);
+                insert.setString(2, "row" + i);
+                insert.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return last;
+    }
+}
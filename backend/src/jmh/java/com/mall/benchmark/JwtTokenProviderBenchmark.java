@@ -0,0 +1,53 @@
+package com.mall.benchmark;
+
+import com.mall.security.JwtTokenProvider;
+import com.mall.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求的Token校验与用户ID解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtTokenProvider = new JwtTokenProvider();
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtSecret", "mySecretKey123456789012345678901234567890");
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtExpiration", 86400000L);
+        BenchmarkSupport.setField(jwtTokenProvider, "refreshExpiration", 604800000L);
+        BenchmarkSupport.setField(jwtTokenProvider, "meterRegistry", new SimpleMeterRegistry());
+        jwtTokenProvider.init();
+
+        UserPrincipal principal = UserPrincipal.create(BenchmarkSupport.user(1L));
+        token = jwtTokenProvider.generateAccessToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtTokenProvider.getUserIdFromToken(token);
+    }
+
+    @Benchmark
+    public Long validateThenGetUserId() {
+        return jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getUserIdFromToken(token) : null;
+    }
+}
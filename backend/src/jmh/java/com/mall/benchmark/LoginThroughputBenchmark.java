@@ -0,0 +1,70 @@
+package com.mall.benchmark;
+
+import com.mall.security.BoundedPasswordEncoder;
+import com.mall.security.PasswordHashingRejectedException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发登录的密码校验吞吐（每秒登录数）：请求线程数多于哈希线程，超出队列或超时的请求计入 rejected
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(32)
+public class LoginThroughputBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    @Param({"10", "12"})
+    private int strength;
+
+    @Param({"64"})
+    private int queueCapacity;
+
+    private BoundedPasswordEncoder encoder;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encoder = new BoundedPasswordEncoder(strength, Duration.ofMillis(100), strength, strength,
+                0, queueCapacity, Duration.ofSeconds(2));
+        hash = new BCryptPasswordEncoder(strength).encode(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encoder.shutdown();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long logins;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            logins = 0;
+            rejected = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean login(Outcome outcome) {
+        try {
+            boolean matched = encoder.matches(PASSWORD, hash);
+            outcome.logins++;
+            return matched;
+        } catch (PasswordHashingRejectedException e) {
+            outcome.rejected++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mall.benchmark;
+
+import com.mall.id.OrderNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单号生成吞吐（每秒生成数）：单线程与多线程争用同一生成器
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderNumberBenchmark {
+
+    private OrderNumberGenerator generator;
+    private String orderNo;
+
+    @Setup
+    public void setup() {
+        generator = new OrderNumberGenerator(1, false, "UTC");
+        orderNo = generator.next();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String nextSingleThread() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextContended() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return OrderNumberGenerator.isValid(orderNo);
+    }
+}
@@ -0,0 +1,101 @@
+package com.mall.benchmark;
+
+import com.mall.MallApplication;
+import com.mall.dto.ProductCard;
+import com.mall.repository.ProductSearchPlanner;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多条件商品搜索（按条件组合和排序方式规划的专用查询），应用连接内存 H2，启动后批量写入测试商品
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final int CATEGORIES = 20;
+
+    private static final String CATEGORY_SQL = "INSERT INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) VALUES (?, ?, 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "INSERT INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) VALUES (?, ?, ?, ?, 100, ?, 'ON_SALE', ?, ?, ?, FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    @Param({"10000"})
+    private int products;
+
+    @Param({"", "手机"})
+    private String keyword;
+
+    @Param({"default", "price_asc", "sales"})
+    private String sortBy;
+
+    private ConfigurableApplicationContext context;
+    private ProductSearchPlanner productSearchPlanner;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MallApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "logging.level.com.mall=WARN",
+                        "spring.jpa.show-sql=false", "mall.cache.redis.enabled=false")
+                .run();
+        productSearchPlanner = context.getBean(ProductSearchPlanner.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductCard> searchProducts() {
+        return readOnly.execute(status -> productSearchPlanner.search(
+                keyword.isEmpty() ? null : keyword, null, null, null, sortBy, PageRequest.of(0, 20)));
+    }
+
+    @Benchmark
+    public Page<ProductCard> searchProductsInCategory() {
+        return readOnly.execute(status -> productSearchPlanner.search(
+                keyword.isEmpty() ? null : keyword, 1_000_001L, BigDecimal.ONE, new BigDecimal("500"),
+                sortBy, PageRequest.of(0, 20)));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 1; i <= CATEGORIES; i++) {
+            categories.add(new Object[]{1_000_000L + i, "分类" + i, now, now});
+        }
+        jdbcTemplate.batchUpdate(CATEGORY_SQL, categories);
+
+        String[] names = {"手机", "电脑", "耳机", "外套", "鞋子", "台灯", "水杯", "背包"};
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            String name = names[i % names.length] + " " + i;
+            BigDecimal price = BigDecimal.valueOf(100 + (i * 7919L) % 99_900, 2);
+            rows.add(new Object[]{2_000_000L + i, name, price, price.add(BigDecimal.TEN), i % 500,
+                    1_000_001L + i % CATEGORIES, names[i % names.length], i % 100, now, now});
+        }
+        jdbcTemplate.batchUpdate(PRODUCT_SQL, rows);
+    }
+}
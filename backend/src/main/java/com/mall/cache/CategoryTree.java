@@ -0,0 +1,48 @@
+package com.mall.cache;
+
+import com.mall.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分类树缓存
+ * 持有不可变的分类树快照，分类变更提交后整体重建并原子替换（写时复制）
+ */
+@Component
+public class CategoryTree {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryTree.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile CategoryTreeSnapshot snapshot;
+
+    /**
+     * 应用启动后加载分类树
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * 重新加载全部分类并替换快照
+     */
+    public synchronized void refresh() {
+        CategoryTreeSnapshot next = CategoryTreeSnapshot.build(categoryRepository.findAll());
+        snapshot = next;
+        log.debug("Category tree refreshed: {} categories", next.size());
+    }
+
+    /**
+     * 当前快照，未加载时返回 null
+     */
+    public CategoryTreeSnapshot snapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,254 @@
+package com.mall.cache;
+
+import com.mall.entity.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 分类树不可变快照
+ * 以有序 long[] 作为主键索引（二分查找），父子关系、祖先链和先序遍历区间均在构建时预计算。
+ * 快照只保存分类的脱管副本（不含商品关联），与任何持久化上下文无关，可跨线程共享；
+ * 对外返回的分类都是新的副本，调用方修改不会影响快照
+ */
+public final class CategoryTreeSnapshot {
+
+    private static final int[] NO_CHILDREN = new int[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private static final Comparator<Category> BY_SORT_ORDER = Comparator
+            .comparing((Category c) -> c.getSortOrder() != null ? c.getSortOrder() : 0)
+            .thenComparing(Category::getId);
+
+    // 按ID升序排列，与 categories 下标一一对应
+    private final long[] ids;
+    private final Category[] categories;
+    // 每个节点的启用子节点下标（按 sortOrder 升序）
+    private final int[][] children;
+    // 每个节点的祖先ID（从根到父节点）
+    private final long[][] ancestors;
+    // 先序遍历序列及每个节点子树在其中的区间 [preStart, preEnd)
+    private final long[] preorder;
+    private final int[] preStart;
+    private final int[] preEnd;
+
+    private final List<Category> top;
+
+    private CategoryTreeSnapshot(long[] ids, Category[] categories, int[][] children, long[][] ancestors,
+                                 long[] preorder, int[] preStart, int[] preEnd, List<Category> top) {
+        this.ids = ids;
+        this.categories = categories;
+        this.children = children;
+        this.ancestors = ancestors;
+        this.preorder = preorder;
+        this.preStart = preStart;
+        this.preEnd = preEnd;
+        this.top = top;
+    }
+
+    /**
+     * 从全部分类构建快照
+     */
+    public static CategoryTreeSnapshot build(List<Category> source) {
+        Category[] categories = source.stream().map(CategoryTreeSnapshot::copy).toArray(Category[]::new);
+        Arrays.sort(categories, Comparator.comparing(Category::getId));
+        int n = categories.length;
+
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = categories[i].getId();
+        }
+
+        // 子节点邻接表：只挂启用的分类，父节点不存在的视为顶级
+        List<List<Category>> childLists = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            childLists.add(new ArrayList<>());
+        }
+        List<Category> roots = new ArrayList<>();
+        List<Category> activeRoots = new ArrayList<>();
+        for (Category category : categories) {
+            int parent = category.getParentId() != null ? Arrays.binarySearch(ids, category.getParentId()) : -1;
+            if (parent >= 0 && category.getParentId().longValue() != category.getId().longValue()) {
+                childLists.get(parent).add(category);
+            } else {
+                roots.add(category);
+                if (category.getParentId() == null && isActive(category)) {
+                    activeRoots.add(category);
+                }
+            }
+        }
+
+        int[][] allChildren = new int[n][];
+        int[][] children = new int[n][];
+        for (int i = 0; i < n; i++) {
+            List<Category> list = childLists.get(i);
+            list.sort(BY_SORT_ORDER);
+            allChildren[i] = list.isEmpty() ? NO_CHILDREN : indexesOf(ids, list, false);
+            children[i] = list.isEmpty() ? NO_CHILDREN : indexesOf(ids, list, true);
+        }
+        roots.sort(BY_SORT_ORDER);
+        activeRoots.sort(BY_SORT_ORDER);
+
+        // 先序遍历预计算祖先链和子树区间（显式栈，避免深层递归）
+        long[][] ancestors = new long[n][];
+        long[] preorder = new long[n];
+        int[] preStart = new int[n];
+        int[] preEnd = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] childPos = new int[n];
+        int cursor = 0;
+        for (Category root : roots) {
+            int rootIndex = Arrays.binarySearch(ids, root.getId());
+            int depth = 0;
+            childPos[0] = 0;
+            stack[0] = rootIndex;
+            ancestors[rootIndex] = NO_IDS;
+            visited[rootIndex] = true;
+            preStart[rootIndex] = cursor;
+            preorder[cursor++] = ids[rootIndex];
+            while (depth >= 0) {
+                int node = stack[depth];
+                if (childPos[depth] < allChildren[node].length) {
+                    int child = allChildren[node][childPos[depth]++];
+                    if (visited[child]) {
+                        continue;
+                    }
+                    visited[child] = true;
+                    long[] chain = Arrays.copyOf(ancestors[node], ancestors[node].length + 1);
+                    chain[chain.length - 1] = ids[node];
+                    ancestors[child] = chain;
+                    preStart[child] = cursor;
+                    preorder[cursor++] = ids[child];
+                    stack[++depth] = child;
+                    childPos[depth] = 0;
+                } else {
+                    preEnd[node] = cursor;
+                    depth--;
+                }
+            }
+        }
+        // 存在环的节点无法从根到达，单独作为孤立节点处理
+        for (int i = 0; i < n; i++) {
+            if (!visited[i]) {
+                ancestors[i] = NO_IDS;
+                preStart[i] = cursor;
+                preorder[cursor++] = ids[i];
+                preEnd[i] = cursor;
+            }
+        }
+
+        return new CategoryTreeSnapshot(ids, categories, children, ancestors, preorder, preStart, preEnd,
+                List.copyOf(activeRoots));
+    }
+
+    public static CategoryTreeSnapshot empty() {
+        return build(Collections.emptyList());
+    }
+
+    /**
+     * 获取所有分类
+     */
+    public List<Category> getAll() {
+        List<Category> result = new ArrayList<>(categories.length);
+        for (Category category : categories) {
+            result.add(copy(category));
+        }
+        return result;
+    }
+
+    /**
+     * 获取启用的顶级分类
+     */
+    public List<Category> getTop() {
+        List<Category> result = new ArrayList<>(top.size());
+        for (Category category : top) {
+            result.add(copy(category));
+        }
+        return result;
+    }
+
+    /**
+     * 根据ID获取分类
+     */
+    public Category get(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? copy(categories[index]) : null;
+    }
+
+    /**
+     * 获取启用的子分类
+     */
+    public List<Category> getChildren(long parentId) {
+        int index = Arrays.binarySearch(ids, parentId);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        int[] childIndexes = children[index];
+        List<Category> result = new ArrayList<>(childIndexes.length);
+        for (int child : childIndexes) {
+            result.add(copy(categories[child]));
+        }
+        return result;
+    }
+
+    /**
+     * 获取祖先分类ID（从根到父节点）
+     */
+    public long[] getAncestorIds(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? ancestors[index].clone() : NO_IDS;
+    }
+
+    /**
+     * 获取分类自身及全部后代分类ID
+     */
+    public long[] getSelfAndDescendantIds(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? Arrays.copyOfRange(preorder, preStart[index], preEnd[index]) : NO_IDS;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    private static int[] indexesOf(long[] ids, List<Category> list, boolean activeOnly) {
+        int[] result = new int[list.size()];
+        int count = 0;
+        for (Category category : list) {
+            if (!activeOnly || isActive(category)) {
+                result[count++] = Arrays.binarySearch(ids, category.getId());
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 复制分类的列属性，得到不受持久化上下文管理的副本；构建快照和对外返回都经过这里
+     */
+    private static Category copy(Category source) {
+        Category copy = new Category();
+        copy.setId(source.getId());
+        copy.setCreateTime(source.getCreateTime());
+        copy.setUpdateTime(source.getUpdateTime());
+        copy.setDeleted(source.getDeleted());
+        copy.setName(source.getName());
+        copy.setParentId(source.getParentId());
+        copy.setLevel(source.getLevel());
+        copy.setSortOrder(source.getSortOrder());
+        copy.setIcon(source.getIcon());
+        copy.setImage(source.getImage());
+        copy.setKeywords(source.getKeywords());
+        copy.setDescription(source.getDescription());
+        copy.setIsShow(source.getIsShow());
+        copy.setStatus(source.getStatus());
+        return copy;
+    }
+
+    private static boolean isActive(Category category) {
+        return category.getStatus() == Category.CategoryStatus.ACTIVE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mall.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 集群变更广播
+ * 搜索索引、榜单、分类树等内存结构只在提交变更的实例上直接更新，其他实例通过远程缓存的发布订阅收到通知后各自重新加载。
+ * 消息带发送实例的标识，实例忽略自己发出的消息
+ */
+@Component
+public class ChangeBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeBroadcaster.class);
+
+    public static final String PRODUCTS = "mall:product:changed";
+    public static final String PRODUCT_SALES = "mall:product:sales";
+    public static final String CATEGORIES = "mall:category:changed";
+    public static final String COUPONS = "mall:coupon:changed";
+    public static final String USERS = "mall:user:changed";
+
+    private static final char SEPARATOR = '|';
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * 通知其他实例
+     */
+    public void publish(String channel, String payload) {
+        remoteCache.publish(channel, instanceId + SEPARATOR + payload);
+    }
+
+    /**
+     * 通知其他实例这些ID对应的数据已变更
+     */
+    public void publishIds(String channel, Collection<Long> ids) {
+        publish(channel, ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /**
+     * 订阅其他实例发出的通知，处理失败只记录日志
+     */
+    public void subscribe(String channel, Consumer<String> listener) {
+        remoteCache.subscribe(channel, message -> {
+            int separator = message.indexOf(SEPARATOR);
+            if (separator < 0 || instanceId.equals(message.substring(0, separator))) {
+                return;
+            }
+            try {
+                listener.accept(message.substring(separator + 1));
+            } catch (RuntimeException e) {
+                log.error("Handling change notification on {} failed: {}", channel, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 订阅ID列表形式的通知
+     */
+    public void subscribeIds(String channel, Consumer<List<Long>> listener) {
+        subscribe(channel, payload -> listener.accept(parseIds(payload)));
+    }
+
+    private static List<Long> parseIds(String payload) {
+        List<Long> ids = new ArrayList<>();
+        for (String part : payload.split(",")) {
+            if (!part.isEmpty()) {
+                ids.add(Long.parseLong(part));
+            }
+        }
+        return ids;
+    }
+}
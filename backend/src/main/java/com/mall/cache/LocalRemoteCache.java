@@ -0,0 +1,185 @@
+package com.mall.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内远程缓存替身（mall.cache.redis.enabled=false 时启用）
+ * 计数操作在同一把锁内完成，与 Redis 的单线程执行语义一致；计数值与 Redis 一样以十进制字符串保存
+ */
+@Component
+@ConditionalOnProperty(name = "mall.cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+public class LocalRemoteCache implements RemoteCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Hash> hashes = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final Object counterLock = new Object();
+
+    @Override
+    public byte[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public List<byte[]> multiGet(List<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+        hashes.remove(key);
+    }
+
+    @Override
+    public Map<String, byte[]> hashGetAll(String key) {
+        Hash hash = hashes.get(key);
+        if (hash == null) {
+            return Map.of();
+        }
+        if (hash.expiresAt <= System.currentTimeMillis()) {
+            hashes.remove(key, hash);
+            return Map.of();
+        }
+        return new HashMap<>(hash.fields);
+    }
+
+    @Override
+    public void hashPutAll(String key, Map<String, byte[]> fields) {
+        hashes.computeIfAbsent(key, k -> new Hash()).fields.putAll(fields);
+    }
+
+    @Override
+    public void hashDelete(String key, String... fields) {
+        Hash hash = hashes.get(key);
+        if (hash != null) {
+            for (String field : fields) {
+                hash.fields.remove(field);
+            }
+        }
+    }
+
+    @Override
+    public void expire(String key, Duration ttl) {
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        Hash hash = hashes.get(key);
+        if (hash != null) {
+            hash.expiresAt = expiresAt;
+        }
+        entries.computeIfPresent(key, (k, entry) -> new Entry(entry.value, expiresAt));
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, byte[] value, Duration ttl) {
+        long expiresAt = ttl != null ? System.currentTimeMillis() + ttl.toMillis() : Long.MAX_VALUE;
+        synchronized (counterLock) {
+            if (get(key) != null) {
+                return false;
+            }
+            entries.put(key, new Entry(value, expiresAt));
+            return true;
+        }
+    }
+
+    @Override
+    public long increment(String key, long delta) {
+        synchronized (counterLock) {
+            Entry entry = entries.get(key);
+            boolean live = entry != null && entry.expiresAt > System.currentTimeMillis();
+            long value = (live ? parse(entry.value) : 0) + delta;
+            entries.put(key, new Entry(format(value), live ? entry.expiresAt : Long.MAX_VALUE));
+            return value;
+        }
+    }
+
+    @Override
+    public long hashIncrement(String key, String field, long delta) {
+        synchronized (counterLock) {
+            Hash hash = hashes.computeIfAbsent(key, k -> new Hash());
+            byte[] current = hash.fields.get(field);
+            long value = (current != null ? parse(current) : 0) + delta;
+            hash.fields.put(field, format(value));
+            return value;
+        }
+    }
+
+    @Override
+    public int decrementAll(List<String> keys, List<Long> amounts) {
+        synchronized (counterLock) {
+            long[] values = new long[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] value = get(keys.get(i));
+                if (value == null || parse(value) < amounts.get(i)) {
+                    return i;
+                }
+                values[i] = parse(value);
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                Entry entry = entries.get(keys.get(i));
+                entries.put(keys.get(i), new Entry(format(values[i] - amounts.get(i)), entry.expiresAt));
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        listeners.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private static long parse(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] format(long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Hash {
+        private final Map<String, byte[]> fields = new ConcurrentHashMap<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+    }
+
+    private static final class Entry {
+        private final byte[] value;
+        private final long expiresAt;
+
+        private Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.mall.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mall.dto.ProductDetail;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 商品详情二级缓存
+ * 一级为进程内 Caffeine（容量和 TTL 受限），二级为 Redis（二进制编码）；
+ * 同一商品的并发未命中只回源一次，失效通过发布订阅通知所有实例。
+ * 回源期间该商品被失效时不回填；其他实例可能在失效之后才写入旧值，因此失效后延迟再删除一次远程缓存
+ */
+@Component
+public class ProductDetailCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductDetailCache.class);
+
+    private static final String KEY_PREFIX = "mall:product:detail:";
+    private static final String INVALIDATION_CHANNEL = "mall:product:invalidate";
+
+    // 失效版本按商品ID分段，段数为2的幂
+    private static final int VERSION_STRIPES = 4096;
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Value("${mall.cache.product.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${mall.cache.product.local-ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${mall.cache.product.remote-ttl:30m}")
+    private Duration remoteTtl;
+
+    @Value("${mall.cache.product.double-delete-delay:2s}")
+    private Duration doubleDeleteDelay;
+
+    private Cache<Long, ProductDetail> localCache;
+
+    private final Map<Long, CompletableFuture<ProductDetail>> loading = new ConcurrentHashMap<>();
+
+    // 商品所在段每次失效递增，回源期间同段发生失效时不回填旧数据
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-cache-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        remoteCache.subscribe(INVALIDATION_CHANNEL, this::onInvalidation);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 获取商品详情：本地缓存 -> 远程缓存 -> loader 回源，商品不存在时返回 null
+     */
+    public ProductDetail get(Long productId, Function<Long, ProductDetail> loader) {
+        ProductDetail detail = localCache.getIfPresent(productId);
+        if (detail != null) {
+            return detail;
+        }
+
+        CompletableFuture<ProductDetail> future = new CompletableFuture<>();
+        CompletableFuture<ProductDetail> existing = loading.putIfAbsent(productId, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            detail = load(productId, loader);
+            future.complete(detail);
+            return detail;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(productId, future);
+        }
+    }
+
+    /**
+     * 批量读取已缓存的商品详情（本地缓存 -> 一次远程批量读取），不回源
+     */
+    public Map<Long, ProductDetail> getAllPresent(Collection<Long> productIds) {
+        Map<Long, ProductDetail> result = new HashMap<>(localCache.getAllPresent(productIds));
+        List<Long> misses = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!result.containsKey(productId)) {
+                misses.add(productId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        long[] missVersions = new long[misses.size()];
+        List<String> keys = new ArrayList<>(misses.size());
+        for (int i = 0; i < misses.size(); i++) {
+            missVersions[i] = version(misses.get(i));
+            keys.add(KEY_PREFIX + misses.get(i));
+        }
+        List<byte[]> values = remoteCache.multiGet(keys);
+        for (int i = 0; i < misses.size(); i++) {
+            ProductDetail detail = values.get(i) != null ? decode(values.get(i)) : null;
+            if (detail != null) {
+                Long productId = misses.get(i);
+                if (missVersions[i] == version(productId)) {
+                    localCache.put(productId, detail);
+                }
+                result.put(productId, detail);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 失效商品详情（本地、远程，并通知其他实例）
+     */
+    public void invalidate(Long productId) {
+        invalidateAll(List.of(productId));
+    }
+
+    /**
+     * 批量失效商品详情，所有商品只发布一条通知；延迟后再删除一次，清除其他实例在失效期间回填的旧值
+     */
+    public void invalidateAll(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        evict(ids);
+        if (!doubleDeleteDelay.isZero()) {
+            scheduler.schedule(() -> {
+                try {
+                    evict(ids);
+                } catch (RuntimeException e) {
+                    log.warn("Delayed product detail eviction failed: {}", e.getMessage());
+                }
+            }, doubleDeleteDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void evict(List<Long> productIds) {
+        productIds.forEach(this::evictLocal);
+        productIds.forEach(productId -> remoteCache.delete(KEY_PREFIX + productId));
+        remoteCache.publish(INVALIDATION_CHANNEL, productIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+    }
+
+    private ProductDetail load(Long productId, Function<Long, ProductDetail> loader) {
+        long version = version(productId);
+
+        byte[] bytes = remoteCache.get(KEY_PREFIX + productId);
+        ProductDetail detail = bytes != null ? decode(bytes) : null;
+        if (detail == null) {
+            detail = loader.apply(productId);
+            if (detail == null) {
+                return null;
+            }
+            if (version == version(productId)) {
+                remoteCache.set(KEY_PREFIX + productId, ProductDetailCodec.encode(detail), remoteTtl);
+                if (version != version(productId)) {
+                    // 写入期间发生了失效，撤销刚写入的值
+                    remoteCache.delete(KEY_PREFIX + productId);
+                }
+            }
+        }
+
+        if (version == version(productId)) {
+            localCache.put(productId, detail);
+        }
+        return detail;
+    }
+
+    private ProductDetail decode(byte[] bytes) {
+        try {
+            return ProductDetailCodec.decode(bytes);
+        } catch (RuntimeException e) {
+            log.warn("Discarding undecodable product detail cache entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void onInvalidation(String message) {
+        for (String part : message.split(",")) {
+            try {
+                evictLocal(Long.parseLong(part));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed product invalidation message: {}", message);
+            }
+        }
+    }
+
+    private void evictLocal(Long productId) {
+        versions.incrementAndGet(stripe(productId));
+        localCache.invalidate(productId);
+    }
+
+    private long version(Long productId) {
+        return versions.get(stripe(productId));
+    }
+
+    private static int stripe(Long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (VERSION_STRIPES - 1);
+    }
+}
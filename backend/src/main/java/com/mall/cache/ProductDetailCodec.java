@@ -0,0 +1,270 @@
+package com.mall.cache;
+
+import com.mall.dto.ProductDetail;
+import com.mall.entity.Product;
+import com.mall.entity.ProductAttribute;
+import com.mall.entity.ProductSku;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品详情二进制编解码
+ * 按固定字段顺序写入，可空字段带标记位，比 JSON 更紧凑；格式变更时提升版本号，旧数据视为未命中
+ */
+public final class ProductDetailCodec {
+
+    private static final byte VERSION = 1;
+
+    private ProductDetailCodec() {
+    }
+
+    public static byte[] encode(ProductDetail detail) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte(VERSION);
+            write(out, detail);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 解码，版本不匹配时返回 null
+     */
+    public static ProductDetail decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(DataOutputStream out, ProductDetail detail) throws IOException {
+        writeLong(out, detail.getId());
+        writeString(out, detail.getName());
+        writeString(out, detail.getSubtitle());
+        writeString(out, detail.getMainImage());
+        writeString(out, detail.getSubImages());
+        writeString(out, detail.getDetail());
+        writeDecimal(out, detail.getPrice());
+        writeDecimal(out, detail.getOriginalPrice());
+        writeInteger(out, detail.getStock());
+        writeInteger(out, detail.getSales());
+        writeEnum(out, detail.getStatus());
+        out.writeBoolean(detail.getCategory() != null);
+        if (detail.getCategory() != null) {
+            writeLong(out, detail.getCategory().getId());
+            writeString(out, detail.getCategory().getName());
+        }
+        writeDecimal(out, detail.getWeight());
+        writeString(out, detail.getUnit());
+        writeString(out, detail.getKeywords());
+        writeString(out, detail.getDescription());
+        writeInteger(out, detail.getSortOrder());
+        writeBoolean(out, detail.getIsHot());
+        writeBoolean(out, detail.getIsNew());
+        writeBoolean(out, detail.getIsRecommend());
+        writeString(out, detail.getVideoUrl());
+        List<ProductDetail.SkuInfo> skus = detail.getSkus() != null ? detail.getSkus() : List.of();
+        out.writeInt(skus.size());
+        for (ProductDetail.SkuInfo sku : skus) {
+            writeLong(out, sku.getId());
+            writeString(out, sku.getSkuCode());
+            writeString(out, sku.getName());
+            writeDecimal(out, sku.getPrice());
+            writeDecimal(out, sku.getOriginalPrice());
+            writeInteger(out, sku.getStock());
+            writeInteger(out, sku.getSales());
+            writeString(out, sku.getImage());
+            writeDecimal(out, sku.getWeight());
+            writeString(out, sku.getAttributes());
+            writeEnum(out, sku.getStatus());
+        }
+        List<ProductDetail.AttributeInfo> attributes = detail.getAttributes() != null ? detail.getAttributes() : List.of();
+        out.writeInt(attributes.size());
+        for (ProductDetail.AttributeInfo attribute : attributes) {
+            writeLong(out, attribute.getId());
+            writeString(out, attribute.getName());
+            writeString(out, attribute.getValue());
+            writeInteger(out, attribute.getSortOrder());
+            writeEnum(out, attribute.getType());
+        }
+        writeDateTime(out, detail.getCreateTime());
+        writeDateTime(out, detail.getUpdateTime());
+    }
+
+    private static ProductDetail read(DataInputStream in) throws IOException {
+        ProductDetail detail = new ProductDetail();
+        detail.setId(readLong(in));
+        detail.setName(readString(in));
+        detail.setSubtitle(readString(in));
+        detail.setMainImage(readString(in));
+        detail.setSubImages(readString(in));
+        detail.setDetail(readString(in));
+        detail.setPrice(readDecimal(in));
+        detail.setOriginalPrice(readDecimal(in));
+        detail.setStock(readInteger(in));
+        detail.setSales(readInteger(in));
+        detail.setStatus(readEnum(in, Product.ProductStatus.class));
+        if (in.readBoolean()) {
+            ProductDetail.CategoryInfo category = new ProductDetail.CategoryInfo();
+            category.setId(readLong(in));
+            category.setName(readString(in));
+            detail.setCategory(category);
+        }
+        detail.setWeight(readDecimal(in));
+        detail.setUnit(readString(in));
+        detail.setKeywords(readString(in));
+        detail.setDescription(readString(in));
+        detail.setSortOrder(readInteger(in));
+        detail.setIsHot(readBoolean(in));
+        detail.setIsNew(readBoolean(in));
+        detail.setIsRecommend(readBoolean(in));
+        detail.setVideoUrl(readString(in));
+        int skusCount = in.readInt();
+        List<ProductDetail.SkuInfo> skus = new ArrayList<>(skusCount);
+        for (int i = 0; i < skusCount; i++) {
+            ProductDetail.SkuInfo sku = new ProductDetail.SkuInfo();
+            sku.setId(readLong(in));
+            sku.setSkuCode(readString(in));
+            sku.setName(readString(in));
+            sku.setPrice(readDecimal(in));
+            sku.setOriginalPrice(readDecimal(in));
+            sku.setStock(readInteger(in));
+            sku.setSales(readInteger(in));
+            sku.setImage(readString(in));
+            sku.setWeight(readDecimal(in));
+            sku.setAttributes(readString(in));
+            sku.setStatus(readEnum(in, ProductSku.SkuStatus.class));
+            skus.add(sku);
+        }
+        detail.setSkus(skus);
+        int attributesCount = in.readInt();
+        List<ProductDetail.AttributeInfo> attributes = new ArrayList<>(attributesCount);
+        for (int i = 0; i < attributesCount; i++) {
+            ProductDetail.AttributeInfo attribute = new ProductDetail.AttributeInfo();
+            attribute.setId(readLong(in));
+            attribute.setName(readString(in));
+            attribute.setValue(readString(in));
+            attribute.setSortOrder(readInteger(in));
+            attribute.setType(readEnum(in, ProductAttribute.AttributeType.class));
+            attributes.add(attribute);
+        }
+        detail.setAttributes(attributes);
+        detail.setCreateTime(readDateTime(in));
+        detail.setUpdateTime(readDateTime(in));
+        return detail;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 2 : (value ? 1 : 0));
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value == 2 ? null : value == 1;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(value.scale());
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int length = in.readByte();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readInt());
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> type) throws IOException {
+        String name = readString(in);
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+}
@@ -0,0 +1,249 @@
+package com.mall.cache;
+
+import com.mall.dto.ProductCard;
+import com.mall.entity.Product;
+import com.mall.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 首页榜单物化
+ * 热门、新品、推荐、热销四个榜单各自保存为排好序的不可变卡片数组，分页直接在内存中切片；
+ * 商品变更时只对受影响的榜单做删除+插入，销量回写后批量重排热销榜
+ */
+@Component
+public class ProductRankings {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRankings.class);
+
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private static final ProductCard[] EMPTY = new ProductCard[0];
+
+    private static final Comparator<ProductCard> BY_SORT_ORDER = Comparator
+            .comparingInt((ProductCard card) -> valueOf(card.getSortOrder())).reversed()
+            .thenComparing(ProductCard::getId, Comparator.reverseOrder());
+
+    private static final Comparator<ProductCard> BY_SALES = Comparator
+            .comparingInt((ProductCard card) -> valueOf(card.getSales())).reversed()
+            .thenComparing(ProductCard::getId, Comparator.reverseOrder());
+
+    /**
+     * 榜单类型
+     */
+    public enum Ranking {
+        HOT(card -> Boolean.TRUE.equals(card.getIsHot()), BY_SORT_ORDER),
+        NEW(card -> Boolean.TRUE.equals(card.getIsNew()), BY_SORT_ORDER),
+        RECOMMEND(card -> Boolean.TRUE.equals(card.getIsRecommend()), BY_SORT_ORDER),
+        BEST_SELLING(card -> true, BY_SALES);
+
+        private final Predicate<ProductCard> filter;
+        private final Comparator<ProductCard> order;
+
+        Ranking(Predicate<ProductCard> filter, Comparator<ProductCard> order) {
+            this.filter = filter;
+            this.order = order;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // 在售商品卡片，仅在持有对象锁时修改
+    private final Map<Long, ProductCard> cards = new HashMap<>();
+
+    // 已发布的榜单，整体替换以保证读方看到一致的数组
+    private volatile Map<Ranking, ProductCard[]> lists = new EnumMap<>(Ranking.class);
+
+    // 全量构建期间到达的增量更新，构建完成后按到达顺序重放；仅在持有对象锁时访问
+    private List<Runnable> deferred;
+
+    private volatile boolean ready = false;
+
+    /**
+     * 应用启动后全量构建榜单。
+     * 分页读取不持有对象锁，这期间的增量更新先暂存，卡片装载后再按顺序重放，避免读到的旧卡片覆盖新变更
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            deferred = new ArrayList<>();
+        }
+        Map<Long, ProductCard> loaded = new HashMap<>();
+        try {
+            int pageNo = 0;
+            Page<ProductCard> page;
+            do {
+                page = productRepository.findCardsByStatus(
+                        Product.ProductStatus.ON_SALE, PageRequest.of(pageNo++, LOAD_BATCH_SIZE));
+                page.forEach(card -> loaded.put(card.getId(), card));
+            } while (page.hasNext());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replayDeferred();
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            cards.clear();
+            cards.putAll(loaded);
+            Map<Ranking, ProductCard[]> next = new EnumMap<>(Ranking.class);
+            for (Ranking ranking : Ranking.values()) {
+                next.put(ranking, cards.values().stream()
+                        .filter(ranking.filter)
+                        .sorted(ranking.order)
+                        .toArray(ProductCard[]::new));
+            }
+            lists = next;
+            replayDeferred();
+            ready = true;
+        }
+        log.info("Product rankings built from {} products in {} ms",
+                loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 获取榜单的一页
+     */
+    public Page<ProductCard> page(Ranking ranking, Pageable pageable) {
+        ProductCard[] items = lists.getOrDefault(ranking, EMPTY);
+        int from = (int) Math.min(pageable.getOffset(), items.length);
+        int to = Math.min(from + pageable.getPageSize(), items.length);
+        return new PageImpl<>(Arrays.asList(items).subList(from, to), pageable, items.length);
+    }
+
+    /**
+     * 商品新增或变更：在售商品按标记重新归入榜单，其余商品移出所有榜单
+     */
+    public synchronized void apply(Collection<ProductCard> onSale, Collection<Long> removed) {
+        if (deferred != null) {
+            deferred.add(() -> apply(onSale, removed));
+            return;
+        }
+        Map<Ranking, ProductCard[]> next = new EnumMap<>(lists);
+        for (Long productId : removed) {
+            update(next, cards.remove(productId), null);
+        }
+        for (ProductCard card : onSale) {
+            update(next, cards.put(card.getId(), card), card);
+        }
+        lists = next;
+    }
+
+    /**
+     * 商品删除
+     */
+    public void remove(Long productId) {
+        apply(List.of(), List.of(productId));
+    }
+
+    /**
+     * 销量回写后累加销量：热销榜整体重排，其他榜单只替换卡片
+     */
+    public synchronized void addSales(Map<Long, Long> deltas) {
+        if (deferred != null) {
+            deferred.add(() -> addSales(deltas));
+            return;
+        }
+        boolean changed = false;
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            ProductCard card = cards.get(entry.getKey());
+            if (card != null) {
+                cards.put(card.getId(), card.withSales((int) (valueOf(card.getSales()) + entry.getValue())));
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+
+        Map<Ranking, ProductCard[]> next = new EnumMap<>(Ranking.class);
+        for (Map.Entry<Ranking, ProductCard[]> entry : lists.entrySet()) {
+            ProductCard[] items = entry.getValue().clone();
+            for (int i = 0; i < items.length; i++) {
+                if (deltas.containsKey(items[i].getId())) {
+                    items[i] = cards.get(items[i].getId());
+                }
+            }
+            if (entry.getKey() == Ranking.BEST_SELLING) {
+                // 一个回写间隔内的销量变化很小，数组接近有序，TimSort 接近线性
+                Arrays.sort(items, entry.getKey().order);
+            }
+            next.put(entry.getKey(), items);
+        }
+        lists = next;
+    }
+
+    /**
+     * 结束暂存并按到达顺序重放构建期间的增量更新，需持有对象锁
+     */
+    private void replayDeferred() {
+        List<Runnable> pending = deferred;
+        deferred = null;
+        pending.forEach(Runnable::run);
+    }
+
+    /**
+     * 只改写旧卡片或新卡片所在的榜单
+     */
+    private static void update(Map<Ranking, ProductCard[]> next, ProductCard old, ProductCard current) {
+        for (Ranking ranking : Ranking.values()) {
+            boolean wasListed = old != null && ranking.filter.test(old);
+            boolean isListed = current != null && ranking.filter.test(current);
+            if (wasListed || isListed) {
+                next.put(ranking, replace(next.getOrDefault(ranking, EMPTY),
+                        wasListed ? old : null, isListed ? current : null, ranking.order));
+            }
+        }
+    }
+
+    /**
+     * 复制数组，移除旧卡片并按顺序插入新卡片
+     */
+    private static ProductCard[] replace(ProductCard[] items, ProductCard old, ProductCard current,
+                                         Comparator<ProductCard> order) {
+        List<ProductCard> result = new ArrayList<>(Arrays.asList(items));
+        if (old != null) {
+            int index = Collections.binarySearch(result, old, order);
+            if (index >= 0) {
+                result.remove(index);
+            } else {
+                result.removeIf(card -> card.getId().equals(old.getId()));
+            }
+        }
+        if (current != null) {
+            int index = Collections.binarySearch(result, current, order);
+            result.add(index >= 0 ? index : -index - 1, current);
+        }
+        return result.toArray(EMPTY);
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
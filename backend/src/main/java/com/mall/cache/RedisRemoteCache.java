@@ -0,0 +1,177 @@
+package com.mall.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Redis 远程缓存（mall.cache.redis.enabled=true 时启用）
+ * 读写失败只记录日志并按未命中处理，Redis 故障不影响主流程；计数操作失败时异常直接抛出
+ */
+@Component
+@ConditionalOnProperty(name = "mall.cache.redis.enabled", havingValue = "true")
+public class RedisRemoteCache implements RemoteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRemoteCache.class);
+
+    // 全部计数器都足够时才一起扣减，否则返回第一个不满足的下标（从 0 开始）
+    private static final RedisScript<Long> DECREMENT_ALL = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "  local value = redis.call('GET', KEYS[i]) " +
+            "  if not value or tonumber(value) < tonumber(ARGV[i]) then return i - 1 end " +
+            "end " +
+            "for i = 1, #KEYS do redis.call('DECRBY', KEYS[i], ARGV[i]) end " +
+            "return -1", Long.class);
+
+    @Autowired
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return binaryRedisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            log.warn("Redis get failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public List<byte[]> multiGet(List<String> keys) {
+        try {
+            List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keys);
+            if (values != null) {
+                return values;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Redis multiGet failed for {} keys: {}", keys.size(), e.getMessage());
+        }
+        return new ArrayList<>(Collections.nCopies(keys.size(), null));
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        try {
+            binaryRedisTemplate.opsForValue().set(key, value, ttl);
+        } catch (RuntimeException e) {
+            log.warn("Redis set failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            binaryRedisTemplate.delete(key);
+        } catch (RuntimeException e) {
+            log.warn("Redis delete failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, byte[]> hashGetAll(String key) {
+        try {
+            return binaryRedisTemplate.<String, byte[]>opsForHash().entries(key);
+        } catch (RuntimeException e) {
+            log.warn("Redis hgetall failed for {}: {}", key, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    @Override
+    public void hashPutAll(String key, Map<String, byte[]> fields) {
+        try {
+            binaryRedisTemplate.<String, byte[]>opsForHash().putAll(key, fields);
+        } catch (RuntimeException e) {
+            log.warn("Redis hmset failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void hashDelete(String key, String... fields) {
+        try {
+            binaryRedisTemplate.opsForHash().delete(key, (Object[]) fields);
+        } catch (RuntimeException e) {
+            log.warn("Redis hdel failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void expire(String key, Duration ttl) {
+        try {
+            binaryRedisTemplate.expire(key, ttl);
+        } catch (RuntimeException e) {
+            log.warn("Redis expire failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, byte[] value, Duration ttl) {
+        Boolean written = ttl != null
+                ? binaryRedisTemplate.opsForValue().setIfAbsent(key, value, ttl)
+                : binaryRedisTemplate.opsForValue().setIfAbsent(key, value);
+        return Boolean.TRUE.equals(written);
+    }
+
+    @Override
+    public long increment(String key, long delta) {
+        Long value = binaryRedisTemplate.opsForValue().increment(key, delta);
+        if (value == null) {
+            throw new IllegalStateException("Redis incrby returned no value for " + key);
+        }
+        return value;
+    }
+
+    @Override
+    public long hashIncrement(String key, String field, long delta) {
+        return binaryRedisTemplate.<String, byte[]>opsForHash().increment(key, field, delta);
+    }
+
+    /**
+     * 多键脚本要求这些键位于同一节点，Redis Cluster 下需为键加相同的 hash tag
+     */
+    @Override
+    public int decrementAll(List<String> keys, List<Long> amounts) {
+        Object[] args = amounts.stream()
+                .map(amount -> String.valueOf(amount).getBytes(StandardCharsets.UTF_8))
+                .toArray();
+        Long result = binaryRedisTemplate.execute(DECREMENT_ALL, keys, args);
+        if (result == null) {
+            throw new IllegalStateException("Redis decrement script returned no value");
+        }
+        return result.intValue();
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        try {
+            binaryRedisTemplate.convertAndSend(channel, message.getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            log.warn("Redis publish failed on {}: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+    }
+}
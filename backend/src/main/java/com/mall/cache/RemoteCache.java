@@ -0,0 +1,85 @@
+package com.mall.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 远程（共享）缓存
+ * 生产环境由 Redis 实现；未启用 Redis 时使用进程内替身，便于开发和测试。
+ * 读写缓存的方法失败时按未命中处理；计数方法（库存等账本使用）失败时抛出异常，调用方不能把故障当作成功
+ */
+public interface RemoteCache {
+
+    /**
+     * 读取二进制值，不存在返回 null
+     */
+    byte[] get(String key);
+
+    /**
+     * 批量读取，结果与键一一对应，不存在的为 null
+     */
+    List<byte[]> multiGet(List<String> keys);
+
+    /**
+     * 写入二进制值并设置过期时间
+     */
+    void set(String key, byte[] value, Duration ttl);
+
+    /**
+     * 删除键
+     */
+    void delete(String key);
+
+    /**
+     * 读取哈希的全部字段，不存在返回空 Map
+     */
+    Map<String, byte[]> hashGetAll(String key);
+
+    /**
+     * 写入哈希字段（不改变过期时间）
+     */
+    void hashPutAll(String key, Map<String, byte[]> fields);
+
+    /**
+     * 删除哈希字段
+     */
+    void hashDelete(String key, String... fields);
+
+    /**
+     * 设置键的过期时间
+     */
+    void expire(String key, Duration ttl);
+
+    /**
+     * 仅当键不存在时写入，写入成功返回 true；ttl 为 null 时不过期
+     */
+    boolean setIfAbsent(String key, byte[] value, Duration ttl);
+
+    /**
+     * 计数器加上增量（可为负）并返回新值，键不存在时从 0 开始
+     */
+    long increment(String key, long delta);
+
+    /**
+     * 哈希字段计数加上增量（可为负）并返回新值，字段不存在时从 0 开始
+     */
+    long hashIncrement(String key, String field, long delta);
+
+    /**
+     * 原子地扣减多个计数器：全部存在且余量都不小于扣减量时一起扣减并返回 -1，
+     * 否则不做任何修改，返回第一个不存在或余量不足的计数器下标。扣减量为负时即为归还，只要求计数器存在
+     */
+    int decrementAll(List<String> keys, List<Long> amounts);
+
+    /**
+     * 向频道广播消息
+     */
+    void publish(String channel, String message);
+
+    /**
+     * 订阅频道
+     */
+    void subscribe(String channel, Consumer<String> listener);
+}
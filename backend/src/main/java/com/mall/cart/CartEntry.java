@@ -0,0 +1,117 @@
+package com.mall.cart;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * 购物车项（不可变），以定长二进制存入用户购物车哈希
+ */
+public final class CartEntry {
+
+    private static final byte VERSION = 1;
+    private static final int ENCODED_SIZE = 1 + 8 + 8 + 8 + 4 + 1 + 8 + 8;
+
+    private final long id;
+    private final long productId;
+    private final Long skuId;
+    private final int quantity;
+    private final boolean checked;
+    private final long createTime;
+    private final long updateTime;
+
+    public CartEntry(long id, long productId, Long skuId, int quantity, boolean checked,
+                     long createTime, long updateTime) {
+        this.id = id;
+        this.productId = productId;
+        this.skuId = skuId;
+        this.quantity = quantity;
+        this.checked = checked;
+        this.createTime = createTime;
+        this.updateTime = updateTime;
+    }
+
+    public CartEntry withQuantity(int quantity) {
+        return new CartEntry(id, productId, skuId, quantity, checked, createTime, nextUpdateTime());
+    }
+
+    public CartEntry withChecked(boolean checked) {
+        return new CartEntry(id, productId, skuId, quantity, checked, createTime, nextUpdateTime());
+    }
+
+    /**
+     * 内容不变、只推进更新时间的副本，用作删除标记
+     */
+    public CartEntry touch() {
+        return new CartEntry(id, productId, skuId, quantity, checked, createTime, nextUpdateTime());
+    }
+
+    public boolean isSameItem(long productId, Long skuId) {
+        return this.productId == productId && Objects.equals(this.skuId, skuId);
+    }
+
+    public byte[] encode() {
+        return ByteBuffer.allocate(ENCODED_SIZE)
+                .put(VERSION)
+                .putLong(id)
+                .putLong(productId)
+                .putLong(skuId != null ? skuId : 0L)
+                .putInt(quantity)
+                .put((byte) (checked ? 1 : 0))
+                .putLong(createTime)
+                .putLong(updateTime)
+                .array();
+    }
+
+    /**
+     * 解码，版本或长度不符时返回 null
+     */
+    public static CartEntry decode(byte[] bytes) {
+        if (bytes == null || bytes.length != ENCODED_SIZE || bytes[0] != VERSION) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, ENCODED_SIZE - 1);
+        long id = buffer.getLong();
+        long productId = buffer.getLong();
+        long skuId = buffer.getLong();
+        int quantity = buffer.getInt();
+        boolean checked = buffer.get() != 0;
+        long createTime = buffer.getLong();
+        long updateTime = buffer.getLong();
+        return new CartEntry(id, productId, skuId != 0L ? skuId : null, quantity, checked, createTime, updateTime);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public Long getSkuId() {
+        return skuId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public boolean isChecked() {
+        return checked;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /**
+     * 更新时间严格递增，节点时钟有偏差时写回仍能按先后覆盖
+     */
+    private long nextUpdateTime() {
+        return Math.max(System.currentTimeMillis(), updateTime + 1);
+    }
+}
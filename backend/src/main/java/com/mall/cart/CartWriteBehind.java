@@ -0,0 +1,219 @@
+package com.mall.cart;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 购物车写回器
+ * 购物车以缓存哈希为主存储，变更按购物车项合并（只保留最新状态），定时批量写回 cart_items；
+ * 缓存中的购物车丢失时由 {@link #load(Long)} 从数据库和尚未写回的变更重建；
+ * 删除写为软删除标记，更新只覆盖更新时间不晚于自己的行，多个节点的写回先后颠倒时也不会用旧状态覆盖新状态；
+ * 单行持续写回失败时记录死信日志后丢弃，不影响其他变更
+ */
+@Component
+public class CartWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(CartWriteBehind.class);
+
+    private static final String SELECT_SQL = "SELECT id, product_id, product_sku_id, quantity, checked, " +
+            "create_time, update_time FROM cart_items WHERE user_id = ? AND (deleted IS NULL OR deleted = FALSE)";
+    private static final String UPDATE_SQL = "UPDATE cart_items SET quantity = ?, checked = ?, update_time = ?, " +
+            "deleted = ? WHERE id = ? AND update_time <= ?";
+    private static final String INSERT_SQL = "INSERT INTO cart_items (id, user_id, product_id, product_sku_id, " +
+            "quantity, checked, create_time, update_time, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String EXISTS_SQL = "SELECT id FROM cart_items WHERE id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${mall.cart.max-attempts:5}")
+    private int maxAttempts;
+
+    // 购物车项ID -> 最新变更
+    private final Map<Long, Change> pending = new ConcurrentHashMap<>();
+    // 购物车项ID -> 正在写回的变更，写回成功前 load 仍可见
+    private final Map<Long, Change> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 记录新增或修改
+     */
+    public void upsert(Long userId, CartEntry entry) {
+        pending.put(entry.getId(), new Change(userId, entry, false));
+    }
+
+    /**
+     * 记录删除，entry 为购物车项删除前的内容，其更新时间即删除时间
+     */
+    public void delete(Long userId, CartEntry entry) {
+        pending.put(entry.getId(), new Change(userId, entry, true));
+    }
+
+    /**
+     * 从数据库加载用户购物车，并叠加正在写回和尚未写回的变更
+     */
+    public List<CartEntry> load(Long userId) {
+        Map<Long, CartEntry> entries = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            long skuId = rs.getLong("product_sku_id");
+            CartEntry entry = new CartEntry(rs.getLong("id"), rs.getLong("product_id"),
+                    rs.wasNull() ? null : skuId, rs.getInt("quantity"), rs.getBoolean("checked"),
+                    millis(rs.getTimestamp("create_time")), millis(rs.getTimestamp("update_time")));
+            entries.put(entry.getId(), entry);
+        }, userId);
+
+        // 先叠加写回中的变更，再叠加更新的待写回变更
+        overlay(inFlight, userId, entries);
+        overlay(pending, userId, entries);
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * 批量写回购物车变更；整批失败时逐行重试，多次失败的变更转入死信日志，不阻塞其他变更
+     */
+    @Scheduled(fixedDelayString = "${mall.cart.flush-interval:2000}")
+    public synchronized void flush() {
+        // 先放入写回中再移出待写回，load 期间始终可见；期间有更新的变更留在待写回中
+        for (Map.Entry<Long, Change> item : pending.entrySet()) {
+            Change change = item.getValue();
+            inFlight.put(item.getKey(), change);
+            pending.remove(item.getKey(), change);
+        }
+        if (inFlight.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Change> changes = new HashMap<>(inFlight);
+        try {
+            writeBatch(changes);
+            changes.forEach(inFlight::remove);
+        } catch (RuntimeException e) {
+            log.warn("Cart batch write-back failed, retrying row by row: {}", e.getMessage());
+            changes.forEach(this::writeRow);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void writeBatch(Map<Long, Change> changes) {
+        List<Change> ordered = new ArrayList<>(changes.values());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL,
+                ordered.stream().map(CartWriteBehind::updateArgs).toList());
+
+        // 未更新的行可能不存在，也可能已有更新的状态；驱动不返回行数（SUCCESS_NO_INFO）时同样无法区分，一并核对
+        List<Change> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(ordered.get(i));
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                String.format(EXISTS_SQL, String.join(", ", Collections.nCopies(unknown.size(), "?"))),
+                Long.class, unknown.stream().map(change -> change.entry.getId()).toArray()));
+        List<Object[]> inserts = unknown.stream()
+                .filter(change -> !existing.contains(change.entry.getId()))
+                .map(CartWriteBehind::insertArgs)
+                .toList();
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+    }
+
+    /**
+     * 单行写回，成功或转入死信后移出写回中，否则留待下次重试
+     */
+    private void writeRow(Long itemId, Change change) {
+        try {
+            if (jdbcTemplate.update(UPDATE_SQL, updateArgs(change)) == 0
+                    && jdbcTemplate.queryForList(String.format(EXISTS_SQL, "?"), Long.class, itemId).isEmpty()) {
+                jdbcTemplate.update(INSERT_SQL, insertArgs(change));
+            }
+            inFlight.remove(itemId, change);
+        } catch (RuntimeException e) {
+            if (++change.attempts < maxAttempts) {
+                log.warn("Cart item {} write-back failed (attempt {}), will retry: {}",
+                        itemId, change.attempts, e.getMessage());
+                return;
+            }
+            inFlight.remove(itemId, change);
+            log.error("Cart item dead-lettered after {} attempts: itemId={}, userId={}, change={}, error={}",
+                    change.attempts, itemId, change.userId, describe(change), e.getMessage());
+        }
+    }
+
+    private static void overlay(Map<Long, Change> changes, Long userId, Map<Long, CartEntry> entries) {
+        changes.forEach((itemId, change) -> {
+            if (change.userId.equals(userId)) {
+                if (!change.deleted) {
+                    entries.put(itemId, change.entry);
+                } else {
+                    entries.remove(itemId);
+                }
+            }
+        });
+    }
+
+    private static Object[] updateArgs(Change change) {
+        CartEntry entry = change.entry;
+        Timestamp updateTime = new Timestamp(entry.getUpdateTime());
+        return new Object[]{entry.getQuantity(), entry.isChecked(), updateTime, change.deleted, entry.getId(),
+                updateTime};
+    }
+
+    private static Object[] insertArgs(Change change) {
+        CartEntry entry = change.entry;
+        return new Object[]{entry.getId(), change.userId, entry.getProductId(), entry.getSkuId(),
+                entry.getQuantity(), entry.isChecked(), new Timestamp(entry.getCreateTime()),
+                new Timestamp(entry.getUpdateTime()), change.deleted};
+    }
+
+    private static String describe(Change change) {
+        CartEntry entry = change.entry;
+        if (change.deleted) {
+            return "DELETE productId=" + entry.getProductId() + ", skuId=" + entry.getSkuId();
+        }
+        return "UPSERT productId=" + entry.getProductId() + ", skuId=" + entry.getSkuId()
+                + ", quantity=" + entry.getQuantity() + ", checked=" + entry.isChecked();
+    }
+
+    private static long millis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : System.currentTimeMillis();
+    }
+
+    private static final class Change {
+        private final Long userId;
+        private final CartEntry entry;
+        private final boolean deleted;
+        // 单行写回失败次数，仅由 flush 线程访问
+        private int attempts;
+
+        private Change(Long userId, CartEntry entry, boolean deleted) {
+            this.userId = userId;
+            this.entry = entry;
+            this.deleted = deleted;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.mall.config;
 
+import com.mall.security.BoundedPasswordEncoder;
 import com.mall.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,12 +12,13 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
+
 /**
  * Spring Security配置
  */
@@ -24,14 +27,34 @@ import org.springframework.web.cors.CorsConfigurationSource;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
-
-
     @Autowired
     private CorsConfigurationSource corsConfigurationSource;
 
+    @Value("${mall.password.strength:0}")
+    private int passwordStrength;
+
+    @Value("${mall.password.target-latency:100ms}")
+    private Duration passwordTargetLatency;
+
+    @Value("${mall.password.min-strength:10}")
+    private int passwordMinStrength;
+
+    @Value("${mall.password.max-strength:14}")
+    private int passwordMaxStrength;
+
+    @Value("${mall.password.threads:0}")
+    private int passwordThreads;
+
+    @Value("${mall.password.queue-capacity:64}")
+    private int passwordQueueCapacity;
+
+    @Value("${mall.password.timeout:2s}")
+    private Duration passwordTimeout;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(passwordStrength, passwordTargetLatency, passwordMinStrength,
+                passwordMaxStrength, passwordThreads, passwordQueueCapacity, passwordTimeout);
     }
 
     @Bean
@@ -48,10 +71,11 @@ public class SecurityConfig {
                 // 公开接口
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/products/**").permitAll()
+                .requestMatchers("/api/home/**").permitAll()
                 .requestMatchers("/api/categories/**").permitAll()
                 .requestMatchers("/api/upload/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/error").permitAll()
                 // 用户接口需要认证
@@ -61,6 +85,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/coupons/user/**").authenticated()
                 // 管理员接口需要管理员权限
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // 监控端点（指标等）只对管理员开放
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // 其他请求需要认证
                 .anyRequest().authenticated()
             )
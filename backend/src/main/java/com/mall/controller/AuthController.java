@@ -5,6 +5,8 @@ import com.mall.dto.JwtAuthenticationResponse;
 import com.mall.dto.LoginRequest;
 import com.mall.entity.User;
 import com.mall.security.JwtTokenProvider;
+import com.mall.security.PasswordHashingRejectedException;
+import com.mall.security.UserPrincipal;
 import com.mall.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -55,8 +57,8 @@ public class AuthController {
             String accessToken = tokenProvider.generateAccessToken(authentication);
             String refreshToken = tokenProvider.generateRefreshToken(authentication);
 
-            // 更新用户登录信息
-            User user = userService.findByUsername(loginRequest.getUsername()).orElse(null);
+            // 复用认证时加载的用户，登录信息异步回写
+            User user = ((UserPrincipal) authentication.getPrincipal()).getUser();
             if (user != null) {
                 userService.updateLoginInfo(user.getId(), getClientIpAddress(request));
             }
@@ -79,6 +81,8 @@ public class AuthController {
                     accessToken, refreshToken, jwtExpiration / 1000, userInfo);
 
             return ApiResponse.success("登录成功", response);
+        } catch (PasswordHashingRejectedException e) {
+            return ApiResponse.error(e.getMessage(), 429);
         } catch (Exception e) {
             return ApiResponse.error("用户名或密码错误");
         }
@@ -90,6 +94,8 @@ public class AuthController {
         try {
             userService.register(user);
             return ApiResponse.success("注册成功");
+        } catch (PasswordHashingRejectedException e) {
+            return ApiResponse.error(e.getMessage(), 429);
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
         }
@@ -0,0 +1,115 @@
+package com.mall.controller;
+
+import com.mall.dto.ApiResponse;
+import com.mall.dto.CartAddRequest;
+import com.mall.dto.CartItemView;
+import com.mall.security.UserPrincipal;
+import com.mall.service.CartService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车控制器
+ */
+@RestController
+@RequestMapping("/api/cart")
+@Tag(name = "购物车管理", description = "购物车增删改查相关接口")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @GetMapping
+    @Operation(summary = "获取购物车列表")
+    public ApiResponse<List<CartItemView>> getCartItems() {
+        return ApiResponse.success(cartService.getCartItems(currentUserId()));
+    }
+
+    @PostMapping
+    @Operation(summary = "加入购物车")
+    public ApiResponse<String> addToCart(@Valid @RequestBody CartAddRequest request) {
+        try {
+            cartService.addToCart(currentUserId(), request.getProductId(), request.getSkuId(), request.getQuantity());
+            return ApiResponse.success("已加入购物车");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{itemId}/quantity")
+    @Operation(summary = "修改商品数量")
+    public ApiResponse<String> updateQuantity(@PathVariable Long itemId, @RequestBody Map<String, Integer> body) {
+        Integer quantity = body.get("quantity");
+        if (quantity == null) {
+            return ApiResponse.error("数量不能为空", 400);
+        }
+        try {
+            cartService.updateQuantity(currentUserId(), itemId, quantity);
+            return ApiResponse.success("修改成功");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{itemId}")
+    @Operation(summary = "删除购物车商品")
+    public ApiResponse<String> removeFromCart(@PathVariable Long itemId) {
+        cartService.removeItems(currentUserId(), List.of(itemId));
+        return ApiResponse.success("删除成功");
+    }
+
+    @DeleteMapping("/batch")
+    @Operation(summary = "批量删除购物车商品")
+    public ApiResponse<String> batchRemove(@RequestBody Map<String, List<Long>> body) {
+        List<Long> itemIds = body.get("itemIds");
+        if (itemIds != null) {
+            cartService.removeItems(currentUserId(), itemIds);
+        }
+        return ApiResponse.success("删除成功");
+    }
+
+    @PutMapping("/{itemId}/check")
+    @Operation(summary = "修改选中状态")
+    public ApiResponse<String> updateCheck(@PathVariable Long itemId, @RequestBody Map<String, Boolean> body) {
+        try {
+            cartService.updateChecked(currentUserId(), itemId, Boolean.TRUE.equals(body.get("checked")));
+            return ApiResponse.success("修改成功");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/check-all")
+    @Operation(summary = "全选或取消全选")
+    public ApiResponse<String> updateAllCheck(@RequestBody Map<String, Boolean> body) {
+        cartService.updateAllChecked(currentUserId(), Boolean.TRUE.equals(body.get("checked")));
+        return ApiResponse.success("修改成功");
+    }
+
+    @GetMapping("/count")
+    @Operation(summary = "获取购物车商品数量")
+    public ApiResponse<Integer> getCartCount() {
+        return ApiResponse.success(cartService.getCartCount(currentUserId()));
+    }
+
+    @DeleteMapping("/clear")
+    @Operation(summary = "清空购物车")
+    public ApiResponse<String> clearCart() {
+        cartService.clearCart(currentUserId());
+        return ApiResponse.success("清空成功");
+    }
+
+    private static Long currentUserId() {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal.getId();
+    }
+}
@@ -0,0 +1,53 @@
+package com.mall.controller;
+
+import com.mall.dto.ApiResponse;
+import com.mall.dto.ApplicableCoupon;
+import com.mall.entity.Coupon;
+import com.mall.security.UserPrincipal;
+import com.mall.service.CouponService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 优惠券控制器
+ */
+@RestController
+@RequestMapping("/api/coupons")
+@Tag(name = "优惠券管理", description = "优惠券查询、领取、适用券计算等相关接口")
+public class CouponController {
+
+    @Autowired
+    private CouponService couponService;
+
+    @GetMapping
+    @Operation(summary = "获取当前有效的优惠券")
+    public ApiResponse<List<Coupon>> getActiveCoupons() {
+        return ApiResponse.success(couponService.findActiveCoupons());
+    }
+
+    @PostMapping("/user/{id}/claim")
+    @Operation(summary = "领取优惠券", description = "返回用户优惠券ID；领完或达到每人限领数量时返回错误")
+    public ApiResponse<Long> claimCoupon(@PathVariable Long id) {
+        try {
+            return ApiResponse.success("领取成功", couponService.claim(currentUserId(), id));
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/user/applicable")
+    @Operation(summary = "获取购物车可用优惠券", description = "按购物车已选商品计算可用优惠券，按优惠金额从高到低排序")
+    public ApiResponse<List<ApplicableCoupon>> getApplicableCoupons() {
+        return ApiResponse.success(couponService.findApplicableForCart(currentUserId()));
+    }
+
+    private static Long currentUserId() {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal.getId();
+    }
+}
@@ -0,0 +1,37 @@
+package com.mall.controller;
+
+import com.mall.dto.ApiResponse;
+import com.mall.dto.HomeView;
+import com.mall.service.HomeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 首页控制器
+ */
+@RestController
+@RequestMapping("/api/home")
+@Tag(name = "首页", description = "首页聚合数据接口")
+public class HomeController {
+
+    @Autowired
+    private HomeService homeService;
+
+    @GetMapping
+    @Operation(summary = "获取首页数据", description = "一次返回顶级分类和热门、新品、推荐、热销商品，部分栏目超时时返回其余栏目")
+    public ResponseEntity<ApiResponse<HomeView>> getHome(
+            @Parameter(description = "每个商品栏目的条数") @RequestParam(defaultValue = "10") int size) {
+
+        HomeView view = homeService.getHome(size);
+        // 降级结果不允许缓存，下次请求重新聚合
+        CacheControl cacheControl = view.isPartial()
+                ? CacheControl.noStore()
+                : CacheControl.maxAge(homeService.getCacheTtl()).cachePublic();
+        return ResponseEntity.ok().cacheControl(cacheControl).body(ApiResponse.success(view));
+    }
+}
@@ -0,0 +1,88 @@
+package com.mall.controller;
+
+import com.mall.dto.ApiResponse;
+import com.mall.dto.OrderCreateRequest;
+import com.mall.dto.OrderView;
+import com.mall.entity.Order;
+import com.mall.security.UserPrincipal;
+import com.mall.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 订单控制器
+ */
+@RestController
+@RequestMapping("/api/orders")
+@Tag(name = "订单管理", description = "下单、订单查询等相关接口")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @PostMapping
+    @Operation(summary = "创建订单", description = "根据商品行创建待付款订单并预占库存")
+    public ApiResponse<OrderView> createOrder(@Valid @RequestBody OrderCreateRequest request) {
+        try {
+            return ApiResponse.success("下单成功", orderService.createOrder(currentUserId(), request));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "获取订单列表", description = "分页获取当前用户的订单")
+    public ApiResponse<Page<OrderView>> getOrders(
+            @Parameter(description = "页码，从0开始") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") int size) {
+
+        return ApiResponse.success(orderService.findUserOrders(currentUserId(), PageRequest.of(page, size)));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "获取订单详情")
+    public ApiResponse<OrderView> getOrder(@PathVariable Long id) {
+        return orderService.findUserOrder(currentUserId(), id)
+                .map(order -> ApiResponse.success(order))
+                .orElse(ApiResponse.error("订单不存在"));
+    }
+
+    @PostMapping("/{id}/pay")
+    @Operation(summary = "支付订单", description = "待付款订单支付成功后不再超时关闭")
+    public ApiResponse<Void> payOrder(@PathVariable Long id,
+                                      @Parameter(description = "支付方式") @RequestParam Order.PaymentMethod paymentMethod) {
+        try {
+            orderService.payOrder(currentUserId(), id, paymentMethod);
+            return ApiResponse.success("支付成功");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "取消订单", description = "取消待付款订单并归还库存")
+    public ApiResponse<Void> cancelOrder(@PathVariable Long id) {
+        try {
+            orderService.cancelOrder(currentUserId(), id);
+            return ApiResponse.success("订单已取消");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    private static Long currentUserId() {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal.getId();
+    }
+}
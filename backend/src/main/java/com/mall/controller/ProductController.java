@@ -1,6 +1,11 @@
 package com.mall.controller;
 
 import com.mall.dto.ApiResponse;
+import com.mall.dto.CursorPage;
+import com.mall.dto.ProductCard;
+import com.mall.dto.ProductDetail;
+import com.mall.dto.ProductFacets;
+import com.mall.dto.SearchSuggestion;
 import com.mall.entity.Product;
 import com.mall.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -28,38 +33,65 @@ public class ProductController {
 
     @GetMapping
     @Operation(summary = "获取商品列表", description = "分页获取所有在售商品")
-    public ApiResponse<Page<Product>> getProducts(
+    public ApiResponse<Page<ProductCard>> getProducts(
             @Parameter(description = "页码，从0开始") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.findAllOnSale(pageable);
+        Page<ProductCard> products = productService.findAllOnSale(pageable);
         return ApiResponse.success(products);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取商品列表", description = "基于游标的无限滚动分页，不统计总数，翻页开销恒定")
+    public ApiResponse<CursorPage<ProductCard>> getProductsByCursor(
+            @Parameter(description = "排序方式：default, sales") @RequestParam(defaultValue = "default") String sort,
+            @Parameter(description = "分类ID") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "上一页返回的游标，第一页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            return ApiResponse.success(productService.findOnSaleByCursor(sort, categoryId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        }
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = "批量获取商品", description = "按ID批量获取商品卡片，结果按请求顺序返回，不存在的商品忽略")
+    public ApiResponse<List<ProductCard>> getProductsByIds(
+            @Parameter(description = "商品ID列表，逗号分隔，最多1000个") @RequestParam List<Long> ids) {
+
+        try {
+            return ApiResponse.success(productService.findCardsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "获取商品详情", description = "根据商品ID获取商品详细信息")
-    public ApiResponse<Product> getProduct(@PathVariable Long id) {
-        return productService.findById(id)
+    public ApiResponse<ProductDetail> getProduct(@PathVariable Long id) {
+        return productService.findDetailById(id)
                 .map(product -> ApiResponse.success(product))
                 .orElse(ApiResponse.error("商品不存在"));
     }
 
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "根据分类获取商品", description = "根据分类ID分页获取商品")
-    public ApiResponse<Page<Product>> getProductsByCategory(
+    public ApiResponse<Page<ProductCard>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.findByCategory(categoryId, pageable);
+        Page<ProductCard> products = productService.findByCategory(categoryId, pageable);
         return ApiResponse.success(products);
     }
 
     @GetMapping("/search")
     @Operation(summary = "搜索商品", description = "多条件搜索商品")
-    public ApiResponse<Page<Product>> searchProducts(
+    public ApiResponse<Page<ProductCard>> searchProducts(
             @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword,
             @Parameter(description = "分类ID") @RequestParam(required = false) Long categoryId,
             @Parameter(description = "最低价格") @RequestParam(required = false) BigDecimal minPrice,
@@ -69,57 +101,78 @@ public class ProductController {
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.searchProducts(keyword, categoryId, minPrice, maxPrice, sortBy, pageable);
+        Page<ProductCard> products = productService.searchProducts(keyword, categoryId, minPrice, maxPrice, sortBy, pageable);
         return ApiResponse.success(products);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "搜索输入建议", description = "按前缀匹配商品名、关键词和分类，支持拼音首字母，按销量排序")
+    public ApiResponse<List<SearchSuggestion>> suggest(
+            @Parameter(description = "已输入的前缀") @RequestParam String q,
+            @Parameter(description = "返回条数，最多10条") @RequestParam(defaultValue = "10") int limit) {
+        return ApiResponse.success(productService.suggest(q, limit));
+    }
+
+    @GetMapping("/search/facets")
+    @Operation(summary = "搜索分面统计", description = "按搜索条件统计各分类、标签、价格区间的商品数")
+    public ApiResponse<ProductFacets> getSearchFacets(
+            @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword,
+            @Parameter(description = "分类ID") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "最低价格") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "最高价格") @RequestParam(required = false) BigDecimal maxPrice) {
+
+        return productService.findSearchFacets(keyword, categoryId, minPrice, maxPrice)
+                .map(ApiResponse::success)
+                .orElse(ApiResponse.error("搜索索引尚未就绪，请稍后重试", 503));
+    }
+
     @GetMapping("/hot")
     @Operation(summary = "获取热门商品", description = "获取热门商品列表")
-    public ApiResponse<Page<Product>> getHotProducts(
+    public ApiResponse<Page<ProductCard>> getHotProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.findHotProducts(pageable);
+        Page<ProductCard> products = productService.findHotProducts(pageable);
         return ApiResponse.success(products);
     }
 
     @GetMapping("/new")
     @Operation(summary = "获取新品", description = "获取新品列表")
-    public ApiResponse<Page<Product>> getNewProducts(
+    public ApiResponse<Page<ProductCard>> getNewProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.findNewProducts(pageable);
+        Page<ProductCard> products = productService.findNewProducts(pageable);
         return ApiResponse.success(products);
     }
 
     @GetMapping("/recommend")
     @Operation(summary = "获取推荐商品", description = "获取推荐商品列表")
-    public ApiResponse<Page<Product>> getRecommendProducts(
+    public ApiResponse<Page<ProductCard>> getRecommendProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.findRecommendProducts(pageable);
+        Page<ProductCard> products = productService.findRecommendProducts(pageable);
         return ApiResponse.success(products);
     }
 
     @GetMapping("/best-selling")
     @Operation(summary = "获取热销商品", description = "根据销量排序获取商品")
-    public ApiResponse<Page<Product>> getBestSellingProducts(
+    public ApiResponse<Page<ProductCard>> getBestSellingProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.findBySales(pageable);
+        Page<ProductCard> products = productService.findBySales(pageable);
         return ApiResponse.success(products);
     }
 
     @GetMapping("/{id}/related")
     @Operation(summary = "获取相关商品", description = "获取与指定商品相关的商品")
-    public ApiResponse<List<Product>> getRelatedProducts(
+    public ApiResponse<List<ProductCard>> getRelatedProducts(
             @PathVariable Long id,
             @RequestParam(defaultValue = "10") int limit) {
         
@@ -129,7 +182,7 @@ public class ProductController {
         }
         
         Pageable pageable = PageRequest.of(0, limit);
-        List<Product> relatedProducts = productService.findRelatedProducts(
+        List<ProductCard> relatedProducts = productService.findRelatedProducts(
                 product.getCategory().getId(), id, pageable);
         return ApiResponse.success(relatedProducts);
     }
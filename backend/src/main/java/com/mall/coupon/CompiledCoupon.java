@@ -0,0 +1,135 @@
+package com.mall.coupon;
+
+import com.mall.entity.Coupon;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * 预编译的优惠券（不可变）
+ * 适用分类/商品ID解析为有序数组，有效期换算为毫秒，资格检查时不再解析字符串
+ */
+public final class CompiledCoupon {
+
+    private static final long[] NO_IDS = new long[0];
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final Long id;
+    private final String name;
+    private final Coupon.CouponType type;
+    private final BigDecimal discountAmount;
+    private final BigDecimal discountRate;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxDiscount;
+    private final long startMillis;
+    private final long endMillis;
+    private final boolean usable;
+    private final long[] categoryIds;
+    private final long[] productIds;
+
+    private CompiledCoupon(Coupon coupon, ZoneId zone) {
+        this.id = coupon.getId();
+        this.name = coupon.getName();
+        this.type = coupon.getType();
+        this.discountAmount = coupon.getDiscountAmount();
+        this.discountRate = coupon.getDiscountRate();
+        this.minAmount = coupon.getMinAmount() != null ? coupon.getMinAmount() : BigDecimal.ZERO;
+        this.maxDiscount = coupon.getMaxDiscount();
+        this.startMillis = coupon.getStartTime() != null
+                ? coupon.getStartTime().atZone(zone).toInstant().toEpochMilli() : Long.MIN_VALUE;
+        this.endMillis = coupon.getEndTime() != null
+                ? coupon.getEndTime().atZone(zone).toInstant().toEpochMilli() : Long.MAX_VALUE;
+        this.usable = coupon.getStatus() == Coupon.CouponStatus.ACTIVE
+                && !Boolean.TRUE.equals(coupon.getDeleted())
+                && (coupon.getTotalCount() == null || coupon.getUsedCount() == null
+                || coupon.getUsedCount() < coupon.getTotalCount());
+        this.categoryIds = parseIds(coupon.getCategoryIds());
+        this.productIds = parseIds(coupon.getProductIds());
+    }
+
+    public static CompiledCoupon compile(Coupon coupon, ZoneId zone) {
+        return new CompiledCoupon(coupon, zone);
+    }
+
+    /**
+     * 未限定分类和商品时全场通用
+     */
+    public boolean isGlobal() {
+        return categoryIds.length == 0 && productIds.length == 0;
+    }
+
+    /**
+     * 对满足条件的金额计算优惠，未达门槛返回 null
+     */
+    public BigDecimal discountFor(BigDecimal eligibleAmount) {
+        if (type != Coupon.CouponType.NO_THRESHOLD && eligibleAmount.compareTo(minAmount) < 0) {
+            return null;
+        }
+        BigDecimal discount;
+        if (type == Coupon.CouponType.PERCENTAGE) {
+            if (discountRate == null) {
+                return null;
+            }
+            // 折扣率可配置为 0.85 或 85（八五折）
+            BigDecimal rate = discountRate.compareTo(BigDecimal.ONE) > 0
+                    ? discountRate.divide(HUNDRED, 4, RoundingMode.HALF_UP) : discountRate;
+            discount = eligibleAmount.multiply(BigDecimal.ONE.subtract(rate)).setScale(2, RoundingMode.HALF_UP);
+        } else {
+            if (discountAmount == null) {
+                return null;
+            }
+            discount = discountAmount;
+        }
+        if (maxDiscount != null && maxDiscount.signum() > 0 && discount.compareTo(maxDiscount) > 0) {
+            discount = maxDiscount;
+        }
+        return discount.min(eligibleAmount);
+    }
+
+    private static long[] parseIds(String value) {
+        if (value == null || value.isBlank()) {
+            return NO_IDS;
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty() && part.chars().allMatch(Character::isDigit))
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Coupon.CouponType getType() {
+        return type;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long[] getCategoryIds() {
+        return categoryIds;
+    }
+
+    public long[] getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,482 @@
+package com.mall.coupon;
+
+import com.mall.cache.RemoteCache;
+import com.mall.entity.Coupon;
+import com.mall.id.IdGenerator;
+import com.mall.repository.CouponRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 优惠券领取服务
+ * 剩余额度和每个用户的领取数放在远程缓存的计数器上，集群内所有实例共用，不会超发也不会超过每人限领；
+ * 计数器不存在时由一个实例持锁按领取记录初始化。领取请求不访问数据库；领取记录定时批量插入 user_coupons
+ * 并累加 used_count，used_count 再定时按领取记录重新核对；持续写入失败的领取记录死信日志后撤销
+ */
+@Service
+public class CouponClaimService {
+
+    private static final Logger log = LoggerFactory.getLogger(CouponClaimService.class);
+
+    private static final String KEY_PREFIX = "mall:coupon:";
+
+    // 不限量优惠券按这个发行量计数
+    private static final long UNLIMITED = 1L << 40;
+    private static final List<Long> ONE = List.of(1L);
+    private static final List<Long> GIVE_BACK_ONE = List.of(-1L);
+    private static final long LOCK_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    // 计数器在优惠券结束后保留的时间，用户领取数比剩余额度多保留一段，保证额度存在时领取数一定存在
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private static final String CLAIMED_SQL =
+            "SELECT user_id, COUNT(*) FROM user_coupons WHERE coupon_id = ? GROUP BY user_id";
+    private static final String INSERT_SQL = "INSERT INTO user_coupons (id, user_id, coupon_id, status, " +
+            "create_time, update_time, deleted) VALUES (?, ?, ?, 'UNUSED', ?, ?, FALSE)";
+    private static final String USED_COUNT_SQL =
+            "UPDATE coupons SET used_count = COALESCE(used_count, 0) + ? WHERE id = ?";
+    private static final String RECONCILE_SQL = "UPDATE coupons SET used_count = " +
+            "(SELECT COUNT(*) FROM user_coupons WHERE user_coupons.coupon_id = coupons.id) WHERE id = ?";
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Value("${mall.coupon.claim-max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mall.coupon.counter-lock-ttl:10s}")
+    private Duration lockTtl;
+
+    @Value("${mall.coupon.counter-lock-wait:2s}")
+    private Duration lockWait;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final byte[] instanceId = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    // 本实例的领取规则快照
+    private final Map<Long, Rules> states = new ConcurrentHashMap<>();
+    private final Queue<Claim> pending = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 领取优惠券，返回用户优惠券ID
+     */
+    public long claim(Long userId, Long couponId) {
+        Rules rules = rules(couponId);
+        long now = System.currentTimeMillis();
+        if (!rules.active) {
+            throw new RuntimeException("优惠券不可领取");
+        }
+        if (now < rules.startMillis) {
+            throw new RuntimeException("优惠券领取尚未开始");
+        }
+        if (now >= rules.endMillis) {
+            throw new RuntimeException("优惠券已过期");
+        }
+
+        // 先取额度：额度存在说明用户领取数已初始化；超过每人限领时归还额度
+        List<String> tokens = List.of(tokensKey(couponId));
+        if (remoteCache.decrementAll(tokens, ONE) != -1) {
+            if (remoteCache.get(tokens.get(0)) != null) {
+                throw new RuntimeException("优惠券已领完");
+            }
+            if (!ensureCounters(couponId)) {
+                throw new RuntimeException("领取人数较多，请稍后重试");
+            }
+            if (remoteCache.decrementAll(tokens, ONE) != -1) {
+                throw new RuntimeException("优惠券已领完");
+            }
+        }
+        String user = String.valueOf(userId);
+        if (remoteCache.hashIncrement(usersKey(couponId), user, 1) > rules.perLimit) {
+            remoteCache.hashIncrement(usersKey(couponId), user, -1);
+            remoteCache.decrementAll(tokens, GIVE_BACK_ONE);
+            throw new RuntimeException("已达到领取上限");
+        }
+
+        long id = idGenerator.nextId("user_coupons");
+        pending.add(new Claim(id, userId, couponId, now));
+        return id;
+    }
+
+    /**
+     * 用户已领取的数量（含各实例尚未写入数据库的领取）
+     */
+    public int getClaimedCount(Long userId, Long couponId) {
+        if (remoteCache.get(tokensKey(couponId)) == null) {
+            ensureCounters(couponId);
+        }
+        return (int) remoteCache.hashIncrement(usersKey(couponId), String.valueOf(userId), 0);
+    }
+
+    /**
+     * 优惠券变更后同步领取规则；发行量变化时按差值调整剩余额度。
+     * 每个实例收到变更时都会调用，已调整过的发行量差值为 0，只会生效一次
+     */
+    public void update(Coupon coupon) {
+        Rules rules = rules(coupon);
+        states.computeIfPresent(coupon.getId(), (id, current) -> rules);
+
+        String totalKey = totalKey(coupon.getId());
+        if (remoteCache.get(totalKey) == null) {
+            // 尚未初始化，初始化时按数据库中的发行量计算
+            return;
+        }
+        if (!lock(coupon.getId())) {
+            log.warn("Coupon {} counter lock busy, total change not applied", coupon.getId());
+            return;
+        }
+        try {
+            byte[] applied = remoteCache.get(totalKey);
+            if (applied == null || remoteCache.get(tokensKey(coupon.getId())) == null) {
+                return;
+            }
+            long delta = capacity(coupon) - parse(applied);
+            if (delta != 0) {
+                remoteCache.increment(tokensKey(coupon.getId()), delta);
+                remoteCache.increment(totalKey, delta);
+            }
+            Duration ttl = ttl(rules.endMillis);
+            if (ttl != null) {
+                remoteCache.expire(tokensKey(coupon.getId()), ttl);
+                remoteCache.expire(totalKey, ttl);
+                remoteCache.expire(usersKey(coupon.getId()), ttl.plus(RETENTION));
+            }
+        } finally {
+            unlock(coupon.getId());
+        }
+    }
+
+    /**
+     * 数据库中的领取记录被直接修改后调用：丢弃计数器，下次领取时按数据库重新初始化。
+     * 尚未写入数据库的领取会被重复计入额度，只应在该优惠券没有进行中的领取时调用
+     */
+    public void resync(Long couponId) {
+        remoteCache.delete(tokensKey(couponId));
+        remoteCache.delete(totalKey(couponId));
+        remoteCache.delete(usersKey(couponId));
+    }
+
+    /**
+     * 优惠券删除后停止领取
+     */
+    public void disable(Long couponId) {
+        states.computeIfPresent(couponId, (id, current) ->
+                new Rules(false, current.startMillis, current.endMillis, current.perLimit));
+    }
+
+    /**
+     * 批量写入领取记录并累加 used_count，同一事务内完成；
+     * 整批失败时逐条重试，多次失败的领取记录转入死信日志并归还额度，不阻塞其他领取
+     */
+    @Scheduled(fixedDelayString = "${mall.coupon.claim-flush-interval:500}")
+    public synchronized void flush() {
+        List<Claim> batch = new ArrayList<>();
+        Claim claim;
+        while ((claim = pending.poll()) != null) {
+            batch.add(claim);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> inserts = new ArrayList<>(batch.size());
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Claim item : batch) {
+            inserts.add(insertArgs(item));
+            counts.merge(item.couponId, 1, Integer::sum);
+        }
+        List<Object[]> updates = new ArrayList<>(counts.size());
+        counts.forEach((couponId, count) -> updates.add(new Object[]{count, couponId}));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                jdbcTemplate.batchUpdate(USED_COUNT_SQL, updates);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Coupon claim batch write-back failed, retrying one by one: {}", e.getMessage());
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    /**
+     * 按领取记录重新核对 used_count，并卸载已结束优惠券的领取状态
+     */
+    @Scheduled(fixedDelayString = "${mall.coupon.reconcile-interval:60000}")
+    public synchronized void reconcile() {
+        flush();
+        if (states.isEmpty() || !pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(states.size());
+        states.keySet().forEach(couponId -> args.add(new Object[]{couponId}));
+        try {
+            jdbcTemplate.batchUpdate(RECONCILE_SQL, args);
+        } catch (RuntimeException e) {
+            log.error("Coupon used count reconcile failed: {}", e.getMessage());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        states.values().removeIf(rules -> rules.endMillis <= now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 单条写入领取记录，失败时放回队列，达到重试上限后撤销这次领取
+     */
+    private void writeOne(Claim claim) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_SQL, insertArgs(claim));
+                jdbcTemplate.update(USED_COUNT_SQL, 1, claim.couponId);
+            });
+        } catch (RuntimeException e) {
+            if (++claim.attempts < maxAttempts) {
+                pending.add(claim);
+                log.warn("Coupon claim {} write-back failed (attempt {}), will retry: {}",
+                        claim.id, claim.attempts, e.getMessage());
+                return;
+            }
+            revoke(claim);
+            log.error("Coupon claim dead-lettered after {} attempts: id={}, userId={}, couponId={}, time={}, error={}",
+                    claim.attempts, claim.id, claim.userId, claim.couponId, claim.time, e.getMessage());
+        }
+    }
+
+    /**
+     * 撤销未能写入的领取，归还用户领取数和剩余额度（计数器已不存在时无需归还）
+     */
+    private void revoke(Claim claim) {
+        if (remoteCache.decrementAll(List.of(tokensKey(claim.couponId)), GIVE_BACK_ONE) == -1) {
+            remoteCache.hashIncrement(usersKey(claim.couponId), String.valueOf(claim.userId), -1);
+        }
+    }
+
+    private static Object[] insertArgs(Claim claim) {
+        Timestamp time = new Timestamp(claim.time);
+        return new Object[]{claim.id, claim.userId, claim.couponId, time, time};
+    }
+
+    private Rules rules(Long couponId) {
+        Rules rules = states.get(couponId);
+        if (rules != null) {
+            return rules;
+        }
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new RuntimeException("优惠券不存在"));
+        // 并发加载时只有先放入的一份生效
+        Rules loaded = rules(coupon);
+        rules = states.putIfAbsent(couponId, loaded);
+        return rules != null ? rules : loaded;
+    }
+
+    /**
+     * 剩余额度不存在时持锁按数据库中的领取记录和本实例尚未写入的领取初始化计数器；
+     * 等待其他实例初始化超时返回 false。计数器因缓存故障丢失时，其他实例尚未写入的领取不会计入
+     */
+    private boolean ensureCounters(long couponId) {
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        while (remoteCache.get(tokensKey(couponId)) == null) {
+            if (remoteCache.setIfAbsent(lockKey(couponId), instanceId, lockTtl)) {
+                try {
+                    if (remoteCache.get(tokensKey(couponId)) == null) {
+                        initCounters(couponId);
+                    }
+                } finally {
+                    unlock(couponId);
+                }
+                return true;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(LOCK_RETRY_NANOS);
+        }
+        return true;
+    }
+
+    private void initCounters(long couponId) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new RuntimeException("优惠券不存在"));
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query(CLAIMED_SQL, rs -> {
+            counts.put(rs.getLong(1), rs.getLong(2));
+        }, couponId);
+        for (Claim claim : pending) {
+            if (claim.couponId == couponId) {
+                counts.merge(claim.userId, 1L, Long::sum);
+            }
+        }
+
+        Map<String, byte[]> users = new HashMap<>();
+        counts.forEach((userId, count) -> users.put(String.valueOf(userId), format(count)));
+        long claimed = counts.values().stream().mapToLong(Long::longValue).sum();
+        long capacity = capacity(coupon);
+        Duration ttl = ttl(rules(coupon).endMillis);
+
+        // 用户领取数先于剩余额度写入，剩余额度存在即表示初始化完成
+        remoteCache.delete(usersKey(couponId));
+        if (!users.isEmpty()) {
+            remoteCache.hashPutAll(usersKey(couponId), users);
+            if (ttl != null) {
+                remoteCache.expire(usersKey(couponId), ttl.plus(RETENTION));
+            }
+        }
+        remoteCache.delete(totalKey(couponId));
+        remoteCache.setIfAbsent(totalKey(couponId), format(capacity), ttl);
+        remoteCache.setIfAbsent(tokensKey(couponId), format(capacity - claimed), ttl);
+    }
+
+    /**
+     * 获取计数器锁，等待超时返回 false
+     */
+    private boolean lock(long couponId) {
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        while (!remoteCache.setIfAbsent(lockKey(couponId), instanceId, lockTtl)) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(LOCK_RETRY_NANOS);
+        }
+        return true;
+    }
+
+    private void unlock(long couponId) {
+        // 初始化和调整都远快于锁的有效期，直接删除
+        remoteCache.delete(lockKey(couponId));
+    }
+
+    private Rules rules(Coupon coupon) {
+        boolean active = coupon.getStatus() == Coupon.CouponStatus.ACTIVE
+                && !Boolean.TRUE.equals(coupon.getDeleted());
+        long start = coupon.getStartTime() != null
+                ? coupon.getStartTime().atZone(zone).toInstant().toEpochMilli() : Long.MIN_VALUE;
+        long end = coupon.getEndTime() != null
+                ? coupon.getEndTime().atZone(zone).toInstant().toEpochMilli() : Long.MAX_VALUE;
+        int perLimit = coupon.getPerLimit() != null ? coupon.getPerLimit() : Integer.MAX_VALUE;
+        return new Rules(active, start, end, perLimit);
+    }
+
+    /**
+     * 计数用的发行量，不限量时为 {@link #UNLIMITED}
+     */
+    private static long capacity(Coupon coupon) {
+        return coupon.getTotalCount() != null && coupon.getTotalCount() >= 0 ? coupon.getTotalCount() : UNLIMITED;
+    }
+
+    /**
+     * 计数器的有效期：到优惠券结束后再保留一段时间，没有结束时间时不过期
+     */
+    private static Duration ttl(long endMillis) {
+        if (endMillis == Long.MAX_VALUE) {
+            return null;
+        }
+        return Duration.ofMillis(Math.max(endMillis - System.currentTimeMillis(), 0)).plus(RETENTION);
+    }
+
+    private static String tokensKey(long couponId) {
+        return KEY_PREFIX + couponId + ":tokens";
+    }
+
+    private static String totalKey(long couponId) {
+        return KEY_PREFIX + couponId + ":total";
+    }
+
+    private static String usersKey(long couponId) {
+        return KEY_PREFIX + couponId + ":users";
+    }
+
+    private static String lockKey(long couponId) {
+        return KEY_PREFIX + couponId + ":lock";
+    }
+
+    private static long parse(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] format(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 领取规则快照（发行量由远程计数器控制，不在这里）
+     */
+    private static final class Rules {
+        private final boolean active;
+        private final long startMillis;
+        private final long endMillis;
+        private final int perLimit;
+
+        private Rules(boolean active, long startMillis, long endMillis, int perLimit) {
+            this.active = active;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.perLimit = perLimit;
+        }
+    }
+
+    private static final class Claim {
+        private final long id;
+        private final long userId;
+        private final long couponId;
+        private final long time;
+        // 单条写入失败次数，仅由 flush 线程访问
+        private int attempts;
+
+        private Claim(long id, long userId, long couponId, long time) {
+            this.id = id;
+            this.userId = userId;
+            this.couponId = couponId;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.mall.coupon;
+
+import com.mall.cache.CategoryTree;
+import com.mall.cache.CategoryTreeSnapshot;
+import com.mall.entity.Coupon;
+import com.mall.repository.CouponRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 优惠券资格索引
+ * 可用优惠券按序号编入位图倒排（商品 -> 券、分类 -> 券、全场券），有效期预先换算为毫秒；
+ * 按当前时间缓存"有效券"位图及其不变区间，购物车适用券的计算只需若干次位图求并和求交
+ */
+@Component
+public class CouponEligibilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CouponEligibilityIndex.class);
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CategoryTree categoryTree;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<CompiledCoupon> coupons = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final BitSet global = new BitSet();
+    private final Map<Long, BitSet> byProduct = new HashMap<>();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+
+    // 每次变更递增，有效券位图缓存据此失效
+    private long version = 0;
+
+    private volatile ActiveWindow window = new ActiveWindow(-1, 0, 0, new BitSet());
+
+    /**
+     * 应用启动后加载所有未结束的有效优惠券
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Coupon> source = couponRepository.findByStatusAndEndTimeAfter(
+                Coupon.CouponStatus.ACTIVE, LocalDateTime.now());
+        source.forEach(this::apply);
+        log.info("Coupon eligibility index built with {} coupons", source.size());
+    }
+
+    /**
+     * 新增或更新优惠券，不可用的优惠券会被移出索引
+     */
+    public void apply(Coupon coupon) {
+        CompiledCoupon compiled = CompiledCoupon.compile(coupon, zone);
+        lock.writeLock().lock();
+        try {
+            removeInternal(compiled.getId());
+            if (compiled.isUsable()) {
+                addInternal(compiled);
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除优惠券
+     */
+    public void remove(Long couponId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(couponId);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 计算在指定时间适用于这些商品行的优惠券，按优惠金额从高到低排序
+     */
+    public List<Eligibility> findApplicable(List<EligibilityLine> lines, long now) {
+        CategoryTreeSnapshot tree = categoryTree.snapshot();
+        Map<Integer, BigDecimal> eligibleAmounts = new HashMap<>();
+        Map<Integer, CompiledCoupon> matched = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            BitSet active = activeAt(now);
+            if (active.isEmpty()) {
+                return List.of();
+            }
+            for (EligibilityLine line : lines) {
+                BitSet candidates = (BitSet) global.clone();
+                or(candidates, byProduct.get(line.productId()));
+                if (line.categoryId() != null) {
+                    or(candidates, byCategory.get(line.categoryId()));
+                    // 适用于上级分类的券同样适用于子分类商品
+                    if (tree != null) {
+                        for (long ancestor : tree.getAncestorIds(line.categoryId())) {
+                            or(candidates, byCategory.get(ancestor));
+                        }
+                    }
+                }
+                candidates.and(active);
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    eligibleAmounts.merge(i, line.amount(), BigDecimal::add);
+                    matched.putIfAbsent(i, coupons.get(i));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Eligibility> result = new ArrayList<>();
+        eligibleAmounts.forEach((ordinal, amount) -> {
+            CompiledCoupon coupon = matched.get(ordinal);
+            BigDecimal discount = coupon.discountFor(amount);
+            if (discount != null && discount.signum() > 0) {
+                result.add(new Eligibility(coupon, amount, discount));
+            }
+        });
+        result.sort(Comparator.comparing(Eligibility::discount).reversed()
+                .thenComparing(eligibility -> eligibility.coupon().getId()));
+        return result;
+    }
+
+    /**
+     * 当前有效的优惠券
+     */
+    public List<CompiledCoupon> findActive(long now) {
+        lock.readLock().lock();
+        try {
+            BitSet active = activeAt(now);
+            List<CompiledCoupon> result = new ArrayList<>(active.cardinality());
+            for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+                result.add(coupons.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 有效券位图，需持有读锁；只有越过最近的开始/结束时间或索引变更后才重新计算
+     */
+    private BitSet activeAt(long now) {
+        ActiveWindow current = window;
+        if (current.version == version && now >= current.from && now < current.until) {
+            return current.active;
+        }
+
+        BitSet active = new BitSet();
+        long from = Long.MIN_VALUE;
+        long until = Long.MAX_VALUE;
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            CompiledCoupon coupon = coupons.get(i);
+            long start = coupon.getStartMillis();
+            long end = coupon.getEndMillis();
+            if (start <= now && now < end) {
+                active.set(i);
+            }
+            if (start <= now) {
+                from = Math.max(from, start);
+            } else {
+                until = Math.min(until, start);
+            }
+            if (end <= now) {
+                from = Math.max(from, end);
+            } else {
+                until = Math.min(until, end);
+            }
+        }
+        window = new ActiveWindow(version, from, until, active);
+        return active;
+    }
+
+    private void addInternal(CompiledCoupon coupon) {
+        int ordinal = freeOrdinals.isEmpty() ? coupons.size() : freeOrdinals.pop();
+        if (ordinal == coupons.size()) {
+            coupons.add(coupon);
+        } else {
+            coupons.set(ordinal, coupon);
+        }
+        ordinals.put(coupon.getId(), ordinal);
+        live.set(ordinal);
+        if (coupon.isGlobal()) {
+            global.set(ordinal);
+        }
+        for (long productId : coupon.getProductIds()) {
+            byProduct.computeIfAbsent(productId, key -> new BitSet()).set(ordinal);
+        }
+        for (long categoryId : coupon.getCategoryIds()) {
+            byCategory.computeIfAbsent(categoryId, key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void removeInternal(Long couponId) {
+        Integer ordinal = ordinals.remove(couponId);
+        if (ordinal == null) {
+            return;
+        }
+        CompiledCoupon old = coupons.get(ordinal);
+        for (long productId : old.getProductIds()) {
+            clear(byProduct, productId, ordinal);
+        }
+        for (long categoryId : old.getCategoryIds()) {
+            clear(byCategory, categoryId, ordinal);
+        }
+        global.clear(ordinal);
+        live.clear(ordinal);
+        coupons.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private static void clear(Map<Long, BitSet> postings, long key, int ordinal) {
+        BitSet bits = postings.get(key);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static void or(BitSet target, BitSet bits) {
+        if (bits != null) {
+            target.or(bits);
+        }
+    }
+
+    private static final class ActiveWindow {
+        private final long version;
+        private final long from;
+        private final long until;
+        private final BitSet active;
+
+        private ActiveWindow(long version, long from, long until, BitSet active) {
+            this.version = version;
+            this.from = from;
+            this.until = until;
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.mall.coupon;
+
+import java.math.BigDecimal;
+
+/**
+ * 优惠券对一组商品行的适用结果
+ */
+public record Eligibility(CompiledCoupon coupon, BigDecimal eligibleAmount, BigDecimal discount) {
+}
@@ -0,0 +1,9 @@
+package com.mall.coupon;
+
+import java.math.BigDecimal;
+
+/**
+ * 参与优惠券资格计算的商品行
+ */
+public record EligibilityLine(Long productId, Long categoryId, BigDecimal amount) {
+}
@@ -0,0 +1,69 @@
+package com.mall.dto;
+
+import com.mall.coupon.Eligibility;
+import com.mall.entity.Coupon;
+
+import java.math.BigDecimal;
+
+/**
+ * 可用优惠券DTO
+ */
+public class ApplicableCoupon {
+
+    private Long couponId;
+    private String name;
+    private Coupon.CouponType type;
+    private BigDecimal eligibleAmount;
+    private BigDecimal discount;
+
+    public static ApplicableCoupon from(Eligibility eligibility) {
+        ApplicableCoupon coupon = new ApplicableCoupon();
+        coupon.setCouponId(eligibility.coupon().getId());
+        coupon.setName(eligibility.coupon().getName());
+        coupon.setType(eligibility.coupon().getType());
+        coupon.setEligibleAmount(eligibility.eligibleAmount());
+        coupon.setDiscount(eligibility.discount());
+        return coupon;
+    }
+
+    // Getters and Setters
+    public Long getCouponId() {
+        return couponId;
+    }
+
+    public void setCouponId(Long couponId) {
+        this.couponId = couponId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Coupon.CouponType getType() {
+        return type;
+    }
+
+    public void setType(Coupon.CouponType type) {
+        this.type = type;
+    }
+
+    public BigDecimal getEligibleAmount() {
+        return eligibleAmount;
+    }
+
+    public void setEligibleAmount(BigDecimal eligibleAmount) {
+        this.eligibleAmount = eligibleAmount;
+    }
+
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(BigDecimal discount) {
+        this.discount = discount;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mall.dto;
+
+import com.mall.entity.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 首页聚合数据
+ */
+public class HomeView {
+
+    private List<Category> categories = List.of();
+    private List<ProductCard> hotProducts = List.of();
+    private List<ProductCard> newProducts = List.of();
+    private List<ProductCard> recommendProducts = List.of();
+    private List<ProductCard> bestSellingProducts = List.of();
+
+    // 超时或失败而返回空列表的栏目
+    private List<String> degraded = new ArrayList<>();
+
+    // Getters and Setters
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<Category> categories) {
+        this.categories = categories;
+    }
+
+    public List<ProductCard> getHotProducts() {
+        return hotProducts;
+    }
+
+    public void setHotProducts(List<ProductCard> hotProducts) {
+        this.hotProducts = hotProducts;
+    }
+
+    public List<ProductCard> getNewProducts() {
+        return newProducts;
+    }
+
+    public void setNewProducts(List<ProductCard> newProducts) {
+        this.newProducts = newProducts;
+    }
+
+    public List<ProductCard> getRecommendProducts() {
+        return recommendProducts;
+    }
+
+    public void setRecommendProducts(List<ProductCard> recommendProducts) {
+        this.recommendProducts = recommendProducts;
+    }
+
+    public List<ProductCard> getBestSellingProducts() {
+        return bestSellingProducts;
+    }
+
+    public void setBestSellingProducts(List<ProductCard> bestSellingProducts) {
+        this.bestSellingProducts = bestSellingProducts;
+    }
+
+    public List<String> getDegraded() {
+        return degraded;
+    }
+
+    public void setDegraded(List<String> degraded) {
+        this.degraded = degraded;
+    }
+
+    public boolean isPartial() {
+        return !degraded.isEmpty();
+    }
+}
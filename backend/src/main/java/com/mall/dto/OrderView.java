@@ -0,0 +1,406 @@
+package com.mall.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.mall.entity.Order;
+import com.mall.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单视图DTO（不含懒加载代理和反向引用）
+ */
+public class OrderView {
+
+    private Long id;
+    private String orderNo;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private BigDecimal discountAmount;
+    private BigDecimal shippingFee;
+    private BigDecimal actualAmount;
+    private Order.PaymentMethod paymentMethod;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime paymentTime;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime shippingTime;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime receiveTime;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime closeTime;
+    private String receiverName;
+    private String receiverPhone;
+    private String receiverAddress;
+    private String receiverProvince;
+    private String receiverCity;
+    private String receiverDistrict;
+    private String receiverZip;
+    private String logisticsCompany;
+    private String logisticsNo;
+    private String remark;
+    private Long couponId;
+    private Integer pointsUsed;
+    private List<ItemInfo> orderItems;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updateTime;
+
+    /**
+     * 订单项快照
+     */
+    public static class ItemInfo {
+        private Long id;
+        private Long productId;
+        private Long skuId;
+        private String productName;
+        private String productImage;
+        private BigDecimal productPrice;
+        private Integer quantity;
+        private BigDecimal totalPrice;
+        private String productAttributes;
+
+        public static ItemInfo from(OrderItem item) {
+            ItemInfo info = new ItemInfo();
+            info.id = item.getId();
+            info.productId = item.getProduct() != null ? item.getProduct().getId() : null;
+            info.skuId = item.getProductSku() != null ? item.getProductSku().getId() : null;
+            info.productName = item.getProductName();
+            info.productImage = item.getProductImage();
+            info.productPrice = item.getProductPrice();
+            info.quantity = item.getQuantity();
+            info.totalPrice = item.getTotalPrice();
+            info.productAttributes = item.getProductAttributes();
+            return info;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public Long getSkuId() {
+            return skuId;
+        }
+
+        public void setSkuId(Long skuId) {
+            this.skuId = skuId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public void setProductName(String productName) {
+            this.productName = productName;
+        }
+
+        public String getProductImage() {
+            return productImage;
+        }
+
+        public void setProductImage(String productImage) {
+            this.productImage = productImage;
+        }
+
+        public BigDecimal getProductPrice() {
+            return productPrice;
+        }
+
+        public void setProductPrice(BigDecimal productPrice) {
+            this.productPrice = productPrice;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getTotalPrice() {
+            return totalPrice;
+        }
+
+        public void setTotalPrice(BigDecimal totalPrice) {
+            this.totalPrice = totalPrice;
+        }
+
+        public String getProductAttributes() {
+            return productAttributes;
+        }
+
+        public void setProductAttributes(String productAttributes) {
+            this.productAttributes = productAttributes;
+        }
+    }
+
+    /**
+     * 由订单和已加载的订单项构建视图
+     */
+    public static OrderView from(Order order, List<OrderItem> items) {
+        OrderView view = new OrderView();
+        view.id = order.getId();
+        view.orderNo = order.getOrderNo();
+        view.status = order.getStatus();
+        view.totalAmount = order.getTotalAmount();
+        view.discountAmount = order.getDiscountAmount();
+        view.shippingFee = order.getShippingFee();
+        view.actualAmount = order.getActualAmount();
+        view.paymentMethod = order.getPaymentMethod();
+        view.paymentTime = order.getPaymentTime();
+        view.shippingTime = order.getShippingTime();
+        view.receiveTime = order.getReceiveTime();
+        view.closeTime = order.getCloseTime();
+        view.receiverName = order.getReceiverName();
+        view.receiverPhone = order.getReceiverPhone();
+        view.receiverAddress = order.getReceiverAddress();
+        view.receiverProvince = order.getReceiverProvince();
+        view.receiverCity = order.getReceiverCity();
+        view.receiverDistrict = order.getReceiverDistrict();
+        view.receiverZip = order.getReceiverZip();
+        view.logisticsCompany = order.getLogisticsCompany();
+        view.logisticsNo = order.getLogisticsNo();
+        view.remark = order.getRemark();
+        view.couponId = order.getCouponId();
+        view.pointsUsed = order.getPointsUsed();
+        view.createTime = order.getCreateTime();
+        view.updateTime = order.getUpdateTime();
+        view.orderItems = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            view.orderItems.add(ItemInfo.from(item));
+        }
+        return view;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOrderNo() {
+        return orderNo;
+    }
+
+    public void setOrderNo(String orderNo) {
+        this.orderNo = orderNo;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public BigDecimal getShippingFee() {
+        return shippingFee;
+    }
+
+    public void setShippingFee(BigDecimal shippingFee) {
+        this.shippingFee = shippingFee;
+    }
+
+    public BigDecimal getActualAmount() {
+        return actualAmount;
+    }
+
+    public void setActualAmount(BigDecimal actualAmount) {
+        this.actualAmount = actualAmount;
+    }
+
+    public Order.PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(Order.PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public LocalDateTime getPaymentTime() {
+        return paymentTime;
+    }
+
+    public void setPaymentTime(LocalDateTime paymentTime) {
+        this.paymentTime = paymentTime;
+    }
+
+    public LocalDateTime getShippingTime() {
+        return shippingTime;
+    }
+
+    public void setShippingTime(LocalDateTime shippingTime) {
+        this.shippingTime = shippingTime;
+    }
+
+    public LocalDateTime getReceiveTime() {
+        return receiveTime;
+    }
+
+    public void setReceiveTime(LocalDateTime receiveTime) {
+        this.receiveTime = receiveTime;
+    }
+
+    public LocalDateTime getCloseTime() {
+        return closeTime;
+    }
+
+    public void setCloseTime(LocalDateTime closeTime) {
+        this.closeTime = closeTime;
+    }
+
+    public String getReceiverName() {
+        return receiverName;
+    }
+
+    public void setReceiverName(String receiverName) {
+        this.receiverName = receiverName;
+    }
+
+    public String getReceiverPhone() {
+        return receiverPhone;
+    }
+
+    public void setReceiverPhone(String receiverPhone) {
+        this.receiverPhone = receiverPhone;
+    }
+
+    public String getReceiverAddress() {
+        return receiverAddress;
+    }
+
+    public void setReceiverAddress(String receiverAddress) {
+        this.receiverAddress = receiverAddress;
+    }
+
+    public String getReceiverProvince() {
+        return receiverProvince;
+    }
+
+    public void setReceiverProvince(String receiverProvince) {
+        this.receiverProvince = receiverProvince;
+    }
+
+    public String getReceiverCity() {
+        return receiverCity;
+    }
+
+    public void setReceiverCity(String receiverCity) {
+        this.receiverCity = receiverCity;
+    }
+
+    public String getReceiverDistrict() {
+        return receiverDistrict;
+    }
+
+    public void setReceiverDistrict(String receiverDistrict) {
+        this.receiverDistrict = receiverDistrict;
+    }
+
+    public String getReceiverZip() {
+        return receiverZip;
+    }
+
+    public void setReceiverZip(String receiverZip) {
+        this.receiverZip = receiverZip;
+    }
+
+    public String getLogisticsCompany() {
+        return logisticsCompany;
+    }
+
+    public void setLogisticsCompany(String logisticsCompany) {
+        this.logisticsCompany = logisticsCompany;
+    }
+
+    public String getLogisticsNo() {
+        return logisticsNo;
+    }
+
+    public void setLogisticsNo(String logisticsNo) {
+        this.logisticsNo = logisticsNo;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public void setRemark(String remark) {
+        this.remark = remark;
+    }
+
+    public Long getCouponId() {
+        return couponId;
+    }
+
+    public void setCouponId(Long couponId) {
+        this.couponId = couponId;
+    }
+
+    public Integer getPointsUsed() {
+        return pointsUsed;
+    }
+
+    public void setPointsUsed(Integer pointsUsed) {
+        this.pointsUsed = pointsUsed;
+    }
+
+    public List<ItemInfo> getOrderItems() {
+        return orderItems;
+    }
+
+    public void setOrderItems(List<ItemInfo> orderItems) {
+        this.orderItems = orderItems;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(LocalDateTime updateTime) {
+        this.updateTime = updateTime;
+    }
+}
@@ -0,0 +1,217 @@
+package com.mall.dto;
+
+import com.mall.entity.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品卡片DTO（列表页只查询卡片需要的列）
+ */
+public class ProductCard {
+
+    private Long id;
+    private String name;
+    private String subtitle;
+    private String mainImage;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer stock;
+    private Integer sales;
+    private Product.ProductStatus status;
+    private Long categoryId;
+    private Boolean isHot;
+    private Boolean isNew;
+    private Boolean isRecommend;
+    private Integer sortOrder;
+
+    public ProductCard() {}
+
+    public ProductCard(Long id,
+                       String name,
+                       String subtitle,
+                       String mainImage,
+                       BigDecimal price,
+                       BigDecimal originalPrice,
+                       Integer stock,
+                       Integer sales,
+                       Product.ProductStatus status,
+                       Long categoryId,
+                       Boolean isHot,
+                       Boolean isNew,
+                       Boolean isRecommend,
+                       Integer sortOrder) {
+        this.id = id;
+        this.name = name;
+        this.subtitle = subtitle;
+        this.mainImage = mainImage;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.stock = stock;
+        this.sales = sales;
+        this.status = status;
+        this.categoryId = categoryId;
+        this.isHot = isHot;
+        this.isNew = isNew;
+        this.isRecommend = isRecommend;
+        this.sortOrder = sortOrder;
+    }
+
+    public static ProductCard from(Product product) {
+        return new ProductCard(
+                product.getId(),
+                product.getName(),
+                product.getSubtitle(),
+                product.getMainImage(),
+                product.getPrice(),
+                product.getOriginalPrice(),
+                product.getStock(),
+                product.getSales(),
+                product.getStatus(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getIsHot(),
+                product.getIsNew(),
+                product.getIsRecommend(),
+                product.getSortOrder()
+        );
+    }
+
+    public static ProductCard from(ProductDetail detail) {
+        return new ProductCard(
+                detail.getId(),
+                detail.getName(),
+                detail.getSubtitle(),
+                detail.getMainImage(),
+                detail.getPrice(),
+                detail.getOriginalPrice(),
+                detail.getStock(),
+                detail.getSales(),
+                detail.getStatus(),
+                detail.getCategory() != null ? detail.getCategory().getId() : null,
+                detail.getIsHot(),
+                detail.getIsNew(),
+                detail.getIsRecommend(),
+                detail.getSortOrder()
+        );
+    }
+
+    /**
+     * 复制一份更新了销量的卡片
+     */
+    public ProductCard withSales(Integer sales) {
+        return new ProductCard(id, name, subtitle, mainImage, price, originalPrice, stock, sales,
+                status, categoryId, isHot, isNew, isRecommend, sortOrder);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    public String getMainImage() {
+        return mainImage;
+    }
+
+    public void setMainImage(String mainImage) {
+        this.mainImage = mainImage;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getOriginalPrice() {
+        return originalPrice;
+    }
+
+    public void setOriginalPrice(BigDecimal originalPrice) {
+        this.originalPrice = originalPrice;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Integer getSales() {
+        return sales;
+    }
+
+    public void setSales(Integer sales) {
+        this.sales = sales;
+    }
+
+    public Product.ProductStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Product.ProductStatus status) {
+        this.status = status;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Boolean getIsHot() {
+        return isHot;
+    }
+
+    public void setIsHot(Boolean isHot) {
+        this.isHot = isHot;
+    }
+
+    public Boolean getIsNew() {
+        return isNew;
+    }
+
+    public void setIsNew(Boolean isNew) {
+        this.isNew = isNew;
+    }
+
+    public Boolean getIsRecommend() {
+        return isRecommend;
+    }
+
+    public void setIsRecommend(Boolean isRecommend) {
+        this.isRecommend = isRecommend;
+    }
+
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+
+    public void setSortOrder(Integer sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+}
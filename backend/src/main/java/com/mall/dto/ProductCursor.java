@@ -0,0 +1,57 @@
+package com.mall.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 商品列表游标（键集分页）
+ * 编码最后一条记录的排序键和ID，客户端只需原样回传
+ */
+public class ProductCursor {
+
+    private final String sort;
+    private final long key;
+    private final long id;
+
+    public ProductCursor(String sort, long key, long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = sort + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，排序方式不一致或格式错误时抛出 IllegalArgumentException
+     */
+    public static ProductCursor decode(String cursor, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new ProductCursor(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,495 @@
+package com.mall.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.mall.entity.Product;
+import com.mall.entity.ProductAttribute;
+import com.mall.entity.ProductSku;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品详情DTO（可缓存，不含懒加载代理和反向引用）
+ */
+public class ProductDetail {
+
+    private Long id;
+    private String name;
+    private String subtitle;
+    private String mainImage;
+    private String subImages;
+    private String detail;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer stock;
+    private Integer sales;
+    private Product.ProductStatus status;
+    private CategoryInfo category;
+    private BigDecimal weight;
+    private String unit;
+    private String keywords;
+    private String description;
+    private Integer sortOrder;
+    private Boolean isHot;
+    private Boolean isNew;
+    private Boolean isRecommend;
+    private String videoUrl;
+    private List<SkuInfo> skus;
+    private List<AttributeInfo> attributes;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updateTime;
+
+    /**
+     * 从实体构建详情，需在事务内调用以加载分类、SKU和属性
+     */
+    public static ProductDetail from(Product product) {
+        ProductDetail detail = new ProductDetail();
+        detail.setId(product.getId());
+        detail.setName(product.getName());
+        detail.setSubtitle(product.getSubtitle());
+        detail.setMainImage(product.getMainImage());
+        detail.setSubImages(product.getSubImages());
+        detail.setDetail(product.getDetail());
+        detail.setPrice(product.getPrice());
+        detail.setOriginalPrice(product.getOriginalPrice());
+        detail.setStock(product.getStock());
+        detail.setSales(product.getSales());
+        detail.setStatus(product.getStatus());
+        if (product.getCategory() != null) {
+            CategoryInfo category = new CategoryInfo();
+            category.setId(product.getCategory().getId());
+            category.setName(product.getCategory().getName());
+            detail.setCategory(category);
+        }
+        detail.setWeight(product.getWeight());
+        detail.setUnit(product.getUnit());
+        detail.setKeywords(product.getKeywords());
+        detail.setDescription(product.getDescription());
+        detail.setSortOrder(product.getSortOrder());
+        detail.setIsHot(product.getIsHot());
+        detail.setIsNew(product.getIsNew());
+        detail.setIsRecommend(product.getIsRecommend());
+        detail.setVideoUrl(product.getVideoUrl());
+        List<SkuInfo> skus = new ArrayList<>();
+        if (product.getSkus() != null) {
+            for (ProductSku sku : product.getSkus()) {
+                skus.add(SkuInfo.from(sku));
+            }
+        }
+        detail.setSkus(skus);
+        List<AttributeInfo> attributes = new ArrayList<>();
+        if (product.getAttributes() != null) {
+            for (ProductAttribute attribute : product.getAttributes()) {
+                AttributeInfo info = new AttributeInfo();
+                info.setId(attribute.getId());
+                info.setName(attribute.getName());
+                info.setValue(attribute.getValue());
+                info.setSortOrder(attribute.getSortOrder());
+                info.setType(attribute.getType());
+                attributes.add(info);
+            }
+        }
+        detail.setAttributes(attributes);
+        detail.setCreateTime(product.getCreateTime());
+        detail.setUpdateTime(product.getUpdateTime());
+        return detail;
+    }
+
+    // 分类信息内部类
+    public static class CategoryInfo {
+        private Long id;
+        private String name;
+
+        // Getters and Setters
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    // SKU信息内部类
+    public static class SkuInfo {
+        private Long id;
+        private String skuCode;
+        private String name;
+        private BigDecimal price;
+        private BigDecimal originalPrice;
+        private Integer stock;
+        private Integer sales;
+        private String image;
+        private BigDecimal weight;
+        private String attributes;
+        private ProductSku.SkuStatus status;
+
+        public static SkuInfo from(ProductSku sku) {
+            SkuInfo info = new SkuInfo();
+            info.setId(sku.getId());
+            info.setSkuCode(sku.getSkuCode());
+            info.setName(sku.getName());
+            info.setPrice(sku.getPrice());
+            info.setOriginalPrice(sku.getOriginalPrice());
+            info.setStock(sku.getStock());
+            info.setSales(sku.getSales());
+            info.setImage(sku.getImage());
+            info.setWeight(sku.getWeight());
+            info.setAttributes(sku.getAttributes());
+            info.setStatus(sku.getStatus());
+            return info;
+        }
+
+        // Getters and Setters
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getSkuCode() {
+            return skuCode;
+        }
+
+        public void setSkuCode(String skuCode) {
+            this.skuCode = skuCode;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+
+        public BigDecimal getOriginalPrice() {
+            return originalPrice;
+        }
+
+        public void setOriginalPrice(BigDecimal originalPrice) {
+            this.originalPrice = originalPrice;
+        }
+
+        public Integer getStock() {
+            return stock;
+        }
+
+        public void setStock(Integer stock) {
+            this.stock = stock;
+        }
+
+        public Integer getSales() {
+            return sales;
+        }
+
+        public void setSales(Integer sales) {
+            this.sales = sales;
+        }
+
+        public String getImage() {
+            return image;
+        }
+
+        public void setImage(String image) {
+            this.image = image;
+        }
+
+        public BigDecimal getWeight() {
+            return weight;
+        }
+
+        public void setWeight(BigDecimal weight) {
+            this.weight = weight;
+        }
+
+        public String getAttributes() {
+            return attributes;
+        }
+
+        public void setAttributes(String attributes) {
+            this.attributes = attributes;
+        }
+
+        public ProductSku.SkuStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(ProductSku.SkuStatus status) {
+            this.status = status;
+        }
+    }
+
+    // 属性信息内部类
+    public static class AttributeInfo {
+        private Long id;
+        private String name;
+        private String value;
+        private Integer sortOrder;
+        private ProductAttribute.AttributeType type;
+
+        // Getters and Setters
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public Integer getSortOrder() {
+            return sortOrder;
+        }
+
+        public void setSortOrder(Integer sortOrder) {
+            this.sortOrder = sortOrder;
+        }
+
+        public ProductAttribute.AttributeType getType() {
+            return type;
+        }
+
+        public void setType(ProductAttribute.AttributeType type) {
+            this.type = type;
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    public String getMainImage() {
+        return mainImage;
+    }
+
+    public void setMainImage(String mainImage) {
+        this.mainImage = mainImage;
+    }
+
+    public String getSubImages() {
+        return subImages;
+    }
+
+    public void setSubImages(String subImages) {
+        this.subImages = subImages;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getOriginalPrice() {
+        return originalPrice;
+    }
+
+    public void setOriginalPrice(BigDecimal originalPrice) {
+        this.originalPrice = originalPrice;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Integer getSales() {
+        return sales;
+    }
+
+    public void setSales(Integer sales) {
+        this.sales = sales;
+    }
+
+    public Product.ProductStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Product.ProductStatus status) {
+        this.status = status;
+    }
+
+    public CategoryInfo getCategory() {
+        return category;
+    }
+
+    public void setCategory(CategoryInfo category) {
+        this.category = category;
+    }
+
+    public BigDecimal getWeight() {
+        return weight;
+    }
+
+    public void setWeight(BigDecimal weight) {
+        this.weight = weight;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public String getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(String keywords) {
+        this.keywords = keywords;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+
+    public void setSortOrder(Integer sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    public Boolean getIsHot() {
+        return isHot;
+    }
+
+    public void setIsHot(Boolean isHot) {
+        this.isHot = isHot;
+    }
+
+    public Boolean getIsNew() {
+        return isNew;
+    }
+
+    public void setIsNew(Boolean isNew) {
+        this.isNew = isNew;
+    }
+
+    public Boolean getIsRecommend() {
+        return isRecommend;
+    }
+
+    public void setIsRecommend(Boolean isRecommend) {
+        this.isRecommend = isRecommend;
+    }
+
+    public String getVideoUrl() {
+        return videoUrl;
+    }
+
+    public void setVideoUrl(String videoUrl) {
+        this.videoUrl = videoUrl;
+    }
+
+    public List<SkuInfo> getSkus() {
+        return skus;
+    }
+
+    public void setSkus(List<SkuInfo> skus) {
+        this.skus = skus;
+    }
+
+    public List<AttributeInfo> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(List<AttributeInfo> attributes) {
+        this.attributes = attributes;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(LocalDateTime updateTime) {
+        this.updateTime = updateTime;
+    }
+}
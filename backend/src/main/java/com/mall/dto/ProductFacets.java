@@ -0,0 +1,151 @@
+package com.mall.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 搜索结果的分面统计
+ * 分类计数不受分类条件限制、价格区间计数不受价格条件限制，便于切换筛选项；标签计数基于完整的筛选结果
+ */
+public class ProductFacets {
+
+    private int total;
+    private List<CategoryCount> categories;
+    private List<PriceRangeCount> priceRanges;
+    private int hotCount;
+    private int newCount;
+    private int recommendCount;
+
+    public ProductFacets() {}
+
+    public ProductFacets(int total, List<CategoryCount> categories, List<PriceRangeCount> priceRanges,
+                         int hotCount, int newCount, int recommendCount) {
+        this.total = total;
+        this.categories = categories;
+        this.priceRanges = priceRanges;
+        this.hotCount = hotCount;
+        this.newCount = newCount;
+        this.recommendCount = recommendCount;
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<CategoryCount> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryCount> categories) {
+        this.categories = categories;
+    }
+
+    public List<PriceRangeCount> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(List<PriceRangeCount> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+
+    public int getHotCount() {
+        return hotCount;
+    }
+
+    public void setHotCount(int hotCount) {
+        this.hotCount = hotCount;
+    }
+
+    public int getNewCount() {
+        return newCount;
+    }
+
+    public void setNewCount(int newCount) {
+        this.newCount = newCount;
+    }
+
+    public int getRecommendCount() {
+        return recommendCount;
+    }
+
+    public void setRecommendCount(int recommendCount) {
+        this.recommendCount = recommendCount;
+    }
+
+    /**
+     * 分类计数
+     */
+    public static class CategoryCount {
+        private Long categoryId;
+        private int count;
+
+        public CategoryCount() {}
+
+        public CategoryCount(Long categoryId, int count) {
+            this.categoryId = categoryId;
+            this.count = count;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public void setCategoryId(Long categoryId) {
+            this.categoryId = categoryId;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * 价格区间计数，区间为 [min, max)，max 为 null 表示不设上限
+     */
+    public static class PriceRangeCount {
+        private BigDecimal min;
+        private BigDecimal max;
+        private int count;
+
+        public PriceRangeCount() {}
+
+        public PriceRangeCount(BigDecimal min, BigDecimal max, int count) {
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public BigDecimal getMin() {
+            return min;
+        }
+
+        public void setMin(BigDecimal min) {
+            this.min = min;
+        }
+
+        public BigDecimal getMax() {
+            return max;
+        }
+
+        public void setMax(BigDecimal max) {
+            this.max = max;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
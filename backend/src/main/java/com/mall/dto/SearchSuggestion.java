@@ -0,0 +1,46 @@
+package com.mall.dto;
+
+/**
+ * 搜索框输入建议
+ */
+public class SearchSuggestion {
+
+    // 建议类型：product（商品名）、keyword（商品关键词）、category（分类）
+    private String type;
+    private String text;
+    // 商品或分类ID，关键词建议为 null
+    private Long id;
+
+    public SearchSuggestion() {}
+
+    public SearchSuggestion(String type, String text, Long id) {
+        this.type = type;
+        this.text = text;
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
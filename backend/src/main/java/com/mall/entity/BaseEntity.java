@@ -1,6 +1,7 @@
 package com.mall.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.mall.id.GeneratedEntityId;
 import jakarta.persistence.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -16,7 +17,7 @@ import java.time.LocalDateTime;
 public abstract class BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedEntityId
     private Long id;
 
     @CreatedDate
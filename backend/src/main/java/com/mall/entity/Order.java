@@ -12,7 +12,9 @@ import java.util.List;
  * 订单实体类
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_create_time", columnList = "status, create_time")
+})
 public class Order extends BaseEntity {
 
     @NotBlank(message = "订单号不能为空")
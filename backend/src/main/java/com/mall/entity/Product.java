@@ -1,7 +1,9 @@
 package com.mall.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,9 +13,19 @@ import java.util.List;
 
 /**
  * 商品实体类
+ * 库存和销量只由条件更新和增量 SQL 修改，实体保存时不写这两列，只更新变化的字段；
+ * 已有记录的库存须通过库存服务调整，保存时调用过库存或销量的 setter 会被拒绝，而不是静默丢弃
  */
 @Entity
-@Table(name = "products")
+@DynamicUpdate
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_status_sort", columnList = "status, sort_order, id"),
+        @Index(name = "idx_products_status_sales", columnList = "status, sales, id"),
+        @Index(name = "idx_products_status_price", columnList = "status, price, id"),
+        @Index(name = "idx_products_category_status_sort", columnList = "category_id, status, sort_order, id"),
+        @Index(name = "idx_products_category_status_sales", columnList = "category_id, status, sales, id"),
+        @Index(name = "idx_products_category_status_price", columnList = "category_id, status, price, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product extends BaseEntity {
 
@@ -41,12 +53,19 @@ public class Product extends BaseEntity {
     @Column(name = "original_price", precision = 10, scale = 2)
     private BigDecimal originalPrice;
 
-    @Column(name = "stock")
+    @Column(name = "stock", updatable = false)
     private Integer stock = 0;
 
-    @Column(name = "sales")
+    @Column(name = "sales", updatable = false)
     private Integer sales = 0;
 
+    // 加载或插入后是否调用过库存、销量的 setter（不持久化）
+    @Transient
+    private boolean stockChanged;
+
+    @Transient
+    private boolean salesChanged;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private ProductStatus status = ProductStatus.ON_SALE;
@@ -167,6 +186,7 @@ public class Product extends BaseEntity {
 
     public void setStock(Integer stock) {
         this.stock = stock;
+        this.stockChanged = true;
     }
 
     public Integer getSales() {
@@ -175,6 +195,24 @@ public class Product extends BaseEntity {
 
     public void setSales(Integer sales) {
         this.sales = sales;
+        this.salesChanged = true;
+    }
+
+    @JsonIgnore
+    public boolean isStockChanged() {
+        return stockChanged;
+    }
+
+    @JsonIgnore
+    public boolean isSalesChanged() {
+        return salesChanged;
+    }
+
+    @PostLoad
+    @PostPersist
+    void clearChanges() {
+        stockChanged = false;
+        salesChanged = false;
     }
 
     public ProductStatus getStatus() {
@@ -1,6 +1,8 @@
 package com.mall.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,8 +11,11 @@ import java.math.BigDecimal;
 
 /**
  * 商品SKU实体类
+ * 库存和销量只由条件更新和增量 SQL 修改，实体保存时不写这两列，只更新变化的字段；
+ * 已有记录的库存须通过库存服务调整，保存时调用过库存或销量的 setter 会被拒绝，而不是静默丢弃
  */
 @Entity
+@DynamicUpdate
 @Table(name = "product_skus")
 public class ProductSku extends BaseEntity {
 
@@ -34,12 +39,19 @@ public class ProductSku extends BaseEntity {
     @Column(name = "original_price", precision = 10, scale = 2)
     private BigDecimal originalPrice;
 
-    @Column(name = "stock")
+    @Column(name = "stock", updatable = false)
     private Integer stock = 0;
 
-    @Column(name = "sales")
+    @Column(name = "sales", updatable = false)
     private Integer sales = 0;
 
+    // 加载或插入后是否调用过库存、销量的 setter（不持久化）
+    @Transient
+    private boolean stockChanged;
+
+    @Transient
+    private boolean salesChanged;
+
     @Column(name = "image", length = 500)
     private String image;
 
@@ -115,6 +127,7 @@ public class ProductSku extends BaseEntity {
 
     public void setStock(Integer stock) {
         this.stock = stock;
+        this.stockChanged = true;
     }
 
     public Integer getSales() {
@@ -123,6 +136,24 @@ public class ProductSku extends BaseEntity {
 
     public void setSales(Integer sales) {
         this.sales = sales;
+        this.salesChanged = true;
+    }
+
+    @JsonIgnore
+    public boolean isStockChanged() {
+        return stockChanged;
+    }
+
+    @JsonIgnore
+    public boolean isSalesChanged() {
+        return salesChanged;
+    }
+
+    @PostLoad
+    @PostPersist
+    void clearChanges() {
+        stockChanged = false;
+        salesChanged = false;
     }
 
     public String getImage() {
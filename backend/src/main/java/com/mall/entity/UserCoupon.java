@@ -0,0 +1,92 @@
+package com.mall.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户优惠券实体类（领取记录）
+ */
+@Entity
+@Table(name = "user_coupons", indexes = {
+        @Index(name = "idx_user_coupons_user_coupon", columnList = "user_id, coupon_id"),
+        @Index(name = "idx_user_coupons_coupon", columnList = "coupon_id")
+})
+public class UserCoupon extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "coupon_id")
+    private Coupon coupon;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private UserCouponStatus status = UserCouponStatus.UNUSED;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "use_time")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime useTime;
+
+    // 用户优惠券状态枚举
+    public enum UserCouponStatus {
+        UNUSED("未使用"), USED("已使用"), EXPIRED("已过期");
+
+        private final String description;
+
+        UserCouponStatus(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    // Getters and Setters
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Coupon getCoupon() {
+        return coupon;
+    }
+
+    public void setCoupon(Coupon coupon) {
+        this.coupon = coupon;
+    }
+
+    public UserCouponStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UserCouponStatus status) {
+        this.status = status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public LocalDateTime getUseTime() {
+        return useTime;
+    }
+
+    public void setUseTime(LocalDateTime useTime) {
+        this.useTime = useTime;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mall.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate 主键生成器，委托给 Spring 中配置的 {@link IdGenerator}
+ * Hibernate 自行实例化生成器，因此通过静态引用桥接到 Spring 容器
+ */
+public class EntityIdGenerator implements IdentifierGenerator {
+
+    private static volatile IdGenerator delegate;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        IdGenerator generator = delegate;
+        if (generator == null) {
+            throw new IllegalStateException("主键生成器尚未初始化");
+        }
+        EntityPersister persister = session.getEntityPersister(null, entity);
+        String table = persister instanceof AbstractEntityPersister
+                ? ((AbstractEntityPersister) persister).getTableName()
+                : persister.getEntityName();
+        return generator.nextId(table);
+    }
+
+    /**
+     * 容器启动时注册当前策略
+     */
+    @Component
+    static class Registrar {
+
+        @Autowired
+        Registrar(IdGenerator idGenerator) {
+            delegate = idGenerator;
+        }
+    }
+}
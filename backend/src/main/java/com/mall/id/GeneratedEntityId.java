@@ -0,0 +1,17 @@
+package com.mall.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 由应用生成主键（策略见 {@link IdGenerator}），使 Hibernate 可以批量插入
+ */
+@IdGeneratorType(EntityIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface GeneratedEntityId {
+}
@@ -0,0 +1,12 @@
+package com.mall.id;
+
+/**
+ * 实体主键生成策略
+ */
+public interface IdGenerator {
+
+    /**
+     * 为指定表生成下一个主键
+     */
+    long nextId(String table);
+}
@@ -0,0 +1,130 @@
+package com.mall.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单号生成器
+ * 格式为 yyyyMMddHHmmssSSS + 2 位节点号 + 4 位毫秒内序列 + 1 位 Luhn 校验位，共 24 位数字；
+ * 序列通过 CAS 无锁分配，同一毫秒内用尽时借用下一毫秒，因此同一节点生成的订单号严格递增。
+ * 时间按固定时区格式化（默认 UTC），不随服务器时区和夏令时变化；节点号独立配置，与主键的 worker-id 无关
+ */
+@Component
+public class OrderNumberGenerator {
+
+    public static final int LENGTH = 24;
+
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final long SEQUENCE_RANGE = 10_000;
+
+    static final long MAX_NODE_ID = 99;
+
+    private final ZoneId zone;
+
+    private final int nodeId;
+
+    // 最近一次分配的 (毫秒 * SEQUENCE_RANGE + 序列)
+    private final AtomicLong state = new AtomicLong();
+
+    // 最近一次格式化的秒及其日期前缀，跨秒时整体替换
+    private volatile SecondPrefix prefix = new SecondPrefix(-1, null);
+
+    public OrderNumberGenerator(@Value("${mall.order-no.node-id:-1}") long nodeId,
+                                @Value("${mall.order-no.require-node-id:false}") boolean requireNodeId,
+                                @Value("${mall.order-no.zone:UTC}") String zone) {
+        if (nodeId < -1) {
+            throw new IllegalStateException("mall.order-no.node-id 超出范围 0-" + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = (int) SnowflakeIdGenerator.resolveWorkerId("mall.order-no.node-id", nodeId, requireNodeId,
+                MAX_NODE_ID);
+        this.zone = ZoneId.of(zone);
+    }
+
+    /**
+     * 生成下一个订单号
+     */
+    public String next() {
+        long now = System.currentTimeMillis() * SEQUENCE_RANGE;
+        long last;
+        long next;
+        do {
+            last = state.get();
+            next = Math.max(now, last + 1);
+        } while (!state.compareAndSet(last, next));
+
+        long millis = next / SEQUENCE_RANGE;
+        int sequence = (int) (next % SEQUENCE_RANGE);
+
+        char[] chars = new char[LENGTH];
+        secondPrefix(millis / 1000).getChars(0, 14, chars, 0);
+        int pos = writeDigits(chars, 14, millis % 1000, 3);
+        pos = writeDigits(chars, pos, nodeId, 2);
+        pos = writeDigits(chars, pos, sequence, 4);
+        chars[pos] = (char) ('0' + luhnCheckDigit(chars, pos));
+        return new String(chars);
+    }
+
+    /**
+     * 校验订单号格式和校验位
+     */
+    public static boolean isValid(String orderNo) {
+        if (orderNo == null || orderNo.length() != LENGTH) {
+            return false;
+        }
+        char[] chars = orderNo.toCharArray();
+        for (char c : chars) {
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return chars[LENGTH - 1] - '0' == luhnCheckDigit(chars, LENGTH - 1);
+    }
+
+    private String secondPrefix(long epochSecond) {
+        SecondPrefix current = prefix;
+        if (current.epochSecond != epochSecond) {
+            String text = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone).format(SECOND_FORMAT);
+            current = new SecondPrefix(epochSecond, text);
+            prefix = current;
+        }
+        return current.text;
+    }
+
+    private static int writeDigits(char[] chars, int pos, long value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    /**
+     * 对前 length 位数字计算 Luhn 校验位
+     */
+    private static int luhnCheckDigit(char[] chars, int length) {
+        int sum = 0;
+        boolean twice = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = chars[i] - '0';
+            if (twice) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            twice = !twice;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private record SecondPrefix(long epochSecond, String text) {
+    }
+}
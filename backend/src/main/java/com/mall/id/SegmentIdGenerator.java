@@ -0,0 +1,201 @@
+package com.mall.id;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 号段主键生成器
+ * 每张表在 id_segments 中维护下一个可分配的主键，每次在独立事务中领取一整段，段内在内存中分配；
+ * 首次使用时从表中现有最大主键之后开始。
+ * 双缓冲：当前段剩余不足预取比例时由后台线程领取下一段，调用线程从不在持锁时访问数据库；
+ * 两段都用完时调用线程释放锁等待后台领取完成（带超时），不会占着连接互相阻塞
+ */
+@Component
+@ConditionalOnProperty(name = "mall.id.strategy", havingValue = "segment")
+public class SegmentIdGenerator implements IdGenerator {
+
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS id_segments (" +
+            "name VARCHAR(64) NOT NULL PRIMARY KEY, next_id BIGINT NOT NULL)";
+    private static final String ALLOCATE_SQL = "UPDATE id_segments SET next_id = next_id + ? WHERE name = ?";
+    private static final String SELECT_SQL = "SELECT next_id FROM id_segments WHERE name = ?";
+    private static final String INSERT_SQL = "INSERT INTO id_segments (name, next_id) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${mall.id.segment-size:1000}")
+    private int segmentSize;
+
+    // 当前段剩余不足该比例时预取下一段
+    @Value("${mall.id.segment-prefetch-ratio:0.2}")
+    private double prefetchRatio;
+
+    // 两段都用完时等待后台领取的最长时间
+    @Value("${mall.id.segment-load-timeout:5s}")
+    private Duration loadTimeout;
+
+    private TransactionTemplate requiresNew;
+
+    private long prefetchThreshold;
+
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "id-segment-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        prefetchThreshold = (long) (segmentSize * prefetchRatio);
+        jdbcTemplate.execute(CREATE_SQL);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    @Override
+    public long nextId(String table) {
+        return segments.computeIfAbsent(table, Segment::new).next();
+    }
+
+    /**
+     * 领取一段主键，返回该段的结束值（不含）
+     */
+    private long allocate(String table) {
+        Long end = requiresNew.execute(status -> {
+            if (jdbcTemplate.update(ALLOCATE_SQL, segmentSize, table) == 0) {
+                Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                try {
+                    jdbcTemplate.update(INSERT_SQL, table, max + 1 + segmentSize);
+                } catch (DuplicateKeyException e) {
+                    // 其他节点同时初始化了该表的号段
+                    jdbcTemplate.update(ALLOCATE_SQL, segmentSize, table);
+                }
+            }
+            return jdbcTemplate.queryForObject(SELECT_SQL, Long.class, table);
+        });
+        if (end == null) {
+            throw new IllegalStateException("主键号段分配失败: " + table);
+        }
+        return end;
+    }
+
+    /**
+     * 一张表的当前段和预取段，字段只在持有 lock 时访问
+     */
+    private final class Segment {
+        private final String table;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition loaded = lock.newCondition();
+        private long next;
+        private long end;
+        // 预取段的结束值，0 表示没有就绪的预取段
+        private long bufferedEnd;
+        private boolean loading;
+        private RuntimeException failure;
+
+        private Segment(String table) {
+            this.table = table;
+        }
+
+        private long next() {
+            lock.lock();
+            try {
+                long remaining = loadTimeout.toNanos();
+                boolean waited = false;
+                while (true) {
+                    if (next < end) {
+                        long id = next++;
+                        if (end - next <= prefetchThreshold && bufferedEnd == 0) {
+                            startLoading();
+                        }
+                        return id;
+                    }
+                    if (bufferedEnd != 0) {
+                        next = bufferedEnd - segmentSize;
+                        end = bufferedEnd;
+                        bufferedEnd = 0;
+                        continue;
+                    }
+                    // 本次等待到的领取失败时抛出；之前预取失败留下的错误则重新领取
+                    if (waited && failure != null && !loading) {
+                        RuntimeException cause = failure;
+                        failure = null;
+                        throw new IllegalStateException("主键号段分配失败: " + table, cause);
+                    }
+                    startLoading();
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("等待主键号段超时: " + table);
+                    }
+                    remaining = loaded.awaitNanos(remaining);
+                    waited = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待主键号段时被中断: " + table, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 提交后台领取（已在领取中则忽略），需持有 lock
+         */
+        private void startLoading() {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            failure = null;
+            loader.execute(this::load);
+        }
+
+        private void load() {
+            long allocated = 0;
+            RuntimeException error = null;
+            try {
+                allocated = allocate(table);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            lock.lock();
+            try {
+                loading = false;
+                if (error == null) {
+                    bufferedEnd = allocated;
+                } else {
+                    failure = error;
+                }
+                loaded.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
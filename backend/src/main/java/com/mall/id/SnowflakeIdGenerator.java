@@ -0,0 +1,113 @@
+package com.mall.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间有序的无锁主键生成器
+ * 布局为 41 位毫秒时间戳 + 5 位节点号 + 7 位序列，共 53 位，前端 JavaScript 可精确表示。
+ * 节点号由配置指定（生产环境必须显式配置，各节点互不相同）；单毫秒序列用尽或时钟回拨时等待时钟追上，
+ * 从不使用未到达的毫秒，因此重启后（时钟未回拨时）不会与重启前的主键重复
+ */
+@Component
+@ConditionalOnProperty(name = "mall.id.strategy", havingValue = "snowflake", matchIfMissing = true)
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH = 1704067200000L;
+
+    private static final int WORKER_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+
+    static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // 时钟回拨超过该值时不再等待，直接拒绝生成
+    private static final long MAX_CLOCK_BACKWARD_MILLIS = 5000;
+
+    private final long workerId;
+
+    // 最近一次分配的 (时间戳 << SEQUENCE_BITS | 序列)
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(@Value("${mall.id.worker-id:-1}") long workerId,
+                                @Value("${mall.id.require-worker-id:false}") boolean requireWorkerId) {
+        this.workerId = resolveWorkerId("mall.id.worker-id", workerId, requireWorkerId, MAX_WORKER_ID);
+        log.info("Snowflake id generator uses worker id {}", this.workerId);
+    }
+
+    @Override
+    public long nextId(String table) {
+        while (true) {
+            long now = currentMillis() << SEQUENCE_BITS;
+            long last = state.get();
+            long next = Math.max(now, last + 1);
+            if (next > (now | SEQUENCE_MASK)) {
+                // 本毫秒序列已用尽或时钟回拨：等待时钟走到 next 所在的毫秒
+                awaitMillis(next >>> SEQUENCE_BITS);
+                continue;
+            }
+            if (state.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    private static long currentMillis() {
+        return System.currentTimeMillis() - EPOCH;
+    }
+
+    private static void awaitMillis(long target) {
+        long behind = target - currentMillis();
+        if (behind > MAX_CLOCK_BACKWARD_MILLIS) {
+            throw new IllegalStateException("系统时钟回拨 " + behind + " 毫秒，拒绝生成主键");
+        }
+        while (currentMillis() < target) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 校验配置的节点号；未配置时按主机名推导，要求显式配置（生产环境）时启动失败
+     */
+    static long resolveWorkerId(String property, long configured, boolean required, long max) {
+        if (configured > max) {
+            throw new IllegalStateException(property + " 超出范围 0-" + max + ": " + configured);
+        }
+        if (configured >= 0) {
+            return configured;
+        }
+        if (required) {
+            throw new IllegalStateException("必须为每个节点配置唯一的 " + property + " (0-" + max + ")");
+        }
+        long derived = deriveWorkerId() % (max + 1);
+        log.warn("{} is not set, derived {} from the host name; nodes may collide", property, derived);
+        return derived;
+    }
+
+    static long deriveWorkerId() {
+        String node;
+        try {
+            node = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            node = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return (node.hashCode() & Integer.MAX_VALUE) % (MAX_WORKER_ID + 1);
+    }
+}
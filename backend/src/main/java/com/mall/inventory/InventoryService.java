@@ -0,0 +1,372 @@
+package com.mall.inventory;
+
+import com.mall.cache.ProductDetailCache;
+import com.mall.cache.RemoteCache;
+import com.mall.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * 库存服务（预留账本）
+ * 每个商品/SKU 的可售库存是远程缓存中的一个计数器（生产为 Redis，未启用时为进程内替身），所有实例共享：
+ * 下单时用脚本对全部行原子地"足够才扣减"（预留），事务提交后确认、回滚后释放，热点商品不再争用数据库行锁。
+ * 确认的扣减和订单关闭归还的数量累计在待回写哈希中，由抢到回写锁的实例定时以条件更新
+ * {@code stock = stock - ? WHERE stock >= ?} 在一个事务中批量写回数据库，提交后再从哈希中减去。
+ * 计数器始终满足：可售 = 数据库库存 - 待回写 - 未确认的预留，首次访问时按数据库库存减去待回写初始化
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String COUNTER_PREFIX = "mall:stock:";
+    private static final String PENDING_KEY = "mall:stock:pending";
+    private static final String FLUSH_LOCK_KEY = "mall:stock:flush-lock";
+
+    private static final String PRODUCT_STOCK_SQL = "SELECT stock FROM products WHERE id = ?";
+    private static final String SKU_STOCK_SQL = "SELECT stock FROM product_skus WHERE id = ?";
+    private static final String PRODUCT_DEDUCT_SQL = "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String SKU_DEDUCT_SQL = "UPDATE product_skus SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String PRODUCT_RESTOCK_SQL = "UPDATE products SET stock = stock + ? WHERE id = ?";
+    private static final String SKU_RESTOCK_SQL = "UPDATE product_skus SET stock = stock + ? WHERE id = ?";
+
+    // 写回顺序：先商品库存后SKU库存，各自按ID升序，避免与其他写库存的事务交叉等待
+    private static final Comparator<StockKey> LOCK_ORDER = Comparator
+            .comparing(StockKey::isSku)
+            .thenComparing(key -> key.isSku() ? key.skuId() : key.productId());
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 回写锁的过期时间，须远大于一次回写的耗时；持锁实例宕机时锁到期后由其他实例接手
+    @Value("${mall.inventory.flush-lock-ttl:30s}")
+    private Duration flushLockTtl;
+
+    private final byte[] instanceId = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 扣减库存，库存不足时抛出异常
+     */
+    public void deduct(Long productId, Long skuId, int quantity) {
+        deductAll(Map.of(StockKey.of(productId, skuId), quantity));
+    }
+
+    /**
+     * 预留多行库存并绑定当前事务：提交后确认，回滚后释放；没有活动事务时立即确认。
+     * 任一行不足时不预留任何一行并抛出异常
+     */
+    public void deductAll(Map<StockKey, Integer> lines) {
+        Map<StockKey, Integer> ordered = reserve(lines);
+        TransactionHooks.afterCommit(() -> confirm(ordered));
+        TransactionHooks.afterRollback(() -> release(ordered));
+    }
+
+    /**
+     * 原子地预留多行库存，返回按写回顺序排列的预留行；任一行不足时不做任何修改并抛出异常
+     */
+    public Map<StockKey, Integer> reserve(Map<StockKey, Integer> lines) {
+        Map<StockKey, Integer> ordered = ordered(lines, "扣减数量必须大于0");
+        List<StockKey> keys = new ArrayList<>(ordered.keySet());
+        List<String> counters = keys.stream().map(InventoryService::counterKey).toList();
+        List<Long> amounts = keys.stream().map(key -> (long) ordered.get(key)).toList();
+        // 计数器不存在时初始化后重试，每个键最多初始化一次
+        for (int attempt = 0; attempt <= keys.size(); attempt++) {
+            int failed = remoteCache.decrementAll(counters, amounts);
+            if (failed < 0) {
+                return ordered;
+            }
+            if (!initialize(keys.get(failed))) {
+                break;
+            }
+        }
+        throw new RuntimeException("库存不足");
+    }
+
+    /**
+     * 确认预留：计入待回写量，由定时回写扣减数据库库存
+     */
+    public void confirm(Map<StockKey, Integer> reserved) {
+        reserved.forEach((key, quantity) -> remoteCache.hashIncrement(PENDING_KEY, field(key), quantity));
+    }
+
+    /**
+     * 释放未确认的预留，归还可售库存
+     */
+    public void release(Map<StockKey, Integer> reserved) {
+        reserved.forEach((key, quantity) -> giveBack(key, quantity));
+    }
+
+    /**
+     * 归还库存（如订单取消或超时关闭），在当前事务提交后生效
+     */
+    public void restock(Long productId, Long skuId, int quantity) {
+        restockAll(Map.of(StockKey.of(productId, skuId), quantity));
+    }
+
+    /**
+     * 归还多行库存，在当前事务提交后生效
+     */
+    public void restockAll(Map<StockKey, Integer> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Map<StockKey, Integer> ordered = ordered(lines, "归还数量必须大于0");
+        TransactionHooks.afterCommit(() -> ordered.forEach((key, quantity) -> {
+            // 先加可售再减待回写：两步之间若计数器恰好初始化，可售只会偏少，不会多卖
+            giveBack(key, quantity);
+            remoteCache.hashIncrement(PENDING_KEY, field(key), -quantity);
+        }));
+    }
+
+    /**
+     * 将可售库存设置为指定值（后台调整库存），在当前事务提交后生效，差额随下次回写写入数据库
+     */
+    public void setStock(Long productId, Long skuId, int stock) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("库存不能小于0");
+        }
+        StockKey key = StockKey.of(productId, skuId);
+        loadDatabaseStock(key);
+        TransactionHooks.afterCommit(() -> {
+            // 读取与调整之间可能有并发预留：按读到的值求差额调整，扣减失败时重读
+            while (true) {
+                long delta = stock - getAvailableStock(productId, skuId);
+                if (delta == 0) {
+                    return;
+                }
+                if (remoteCache.decrementAll(List.of(counterKey(key)), List.of(-delta)) < 0) {
+                    remoteCache.hashIncrement(PENDING_KEY, field(key), -delta);
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * 当前可售库存
+     */
+    public long getAvailableStock(Long productId, Long skuId) {
+        StockKey key = StockKey.of(productId, skuId);
+        byte[] value = remoteCache.get(counterKey(key));
+        if (value == null) {
+            initialize(key);
+            value = remoteCache.get(counterKey(key));
+        }
+        return value != null ? parse(value) : 0;
+    }
+
+    /**
+     * 数据库库存被直接修改后调用：丢弃计数器和待回写量，下次访问时按数据库重新初始化。
+     * 未确认的预留和未写回的扣减会一并丢失，只应在该商品没有进行中的下单时调用
+     */
+    public void resync(Long productId, Long skuId) {
+        StockKey key = StockKey.of(productId, skuId);
+        remoteCache.hashDelete(PENDING_KEY, field(key));
+        remoteCache.delete(counterKey(key));
+    }
+
+    /**
+     * 批量写回待回写的库存变化。集群中同一时刻只有抢到回写锁的实例执行；
+     * 数据库提交后、从哈希中减去之前宕机时，这批变化会在下次回写时重复写入（至少一次）
+     */
+    @Scheduled(fixedDelayString = "${mall.inventory.flush-interval:500}")
+    public synchronized void flush() {
+        if (!remoteCache.setIfAbsent(FLUSH_LOCK_KEY, instanceId, flushLockTtl)) {
+            return;
+        }
+        try {
+            Map<StockKey, Long> deltas = new TreeMap<>(LOCK_ORDER);
+            remoteCache.hashGetAll(PENDING_KEY).forEach((field, value) -> {
+                long delta = parse(value);
+                if (delta != 0) {
+                    deltas.put(parseField(field), delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            Set<StockKey> written = write(deltas);
+            written.forEach(key -> remoteCache.hashIncrement(PENDING_KEY, field(key), -deltas.get(key)));
+            productDetailCache.invalidateAll(written.stream().map(StockKey::productId).distinct().toList());
+            if (written.size() < deltas.size()) {
+                log.error("Stock write-back rejected for {} rows (database stock below pending deduction), " +
+                        "kept for retry: {}", deltas.size() - written.size(), deltas.keySet().stream()
+                        .filter(key -> !written.contains(key)).toList());
+            }
+        } finally {
+            // 锁过期前一定完成，因此直接删除
+            remoteCache.delete(FLUSH_LOCK_KEY);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 在一个事务中写回全部变化，返回写入成功的键；驱动未返回逐行结果时回滚并逐行重写
+     */
+    private Set<StockKey> write(Map<StockKey, Long> deltas) {
+        Set<StockKey> written = transactionTemplate.execute(status -> {
+            Set<StockKey> result = writeBatch(deltas);
+            if (result == null) {
+                status.setRollbackOnly();
+            }
+            return result;
+        });
+        if (written != null) {
+            return written;
+        }
+        return transactionTemplate.execute(status -> {
+            Set<StockKey> result = new HashSet<>();
+            deltas.forEach((key, delta) -> {
+                if (update(key, delta) == 1) {
+                    result.add(key);
+                }
+            });
+            return result;
+        });
+    }
+
+    /**
+     * 按语句分组批量执行，返回更新成功的键；任一行结果为 SUCCESS_NO_INFO 时返回 null
+     */
+    private Set<StockKey> writeBatch(Map<StockKey, Long> deltas) {
+        Map<String, List<StockKey>> groups = new LinkedHashMap<>();
+        deltas.keySet().forEach(key -> groups.computeIfAbsent(sql(key, deltas.get(key)), sql -> new ArrayList<>())
+                .add(key));
+        Set<StockKey> written = new HashSet<>();
+        for (Map.Entry<String, List<StockKey>> group : groups.entrySet()) {
+            List<Object[]> args = group.getValue().stream().map(key -> args(key, deltas.get(key))).toList();
+            int[] counts = jdbcTemplate.batchUpdate(group.getKey(), args);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                    return null;
+                }
+                if (counts[i] == 1) {
+                    written.add(group.getValue().get(i));
+                }
+            }
+        }
+        return written;
+    }
+
+    private int update(StockKey key, long delta) {
+        return jdbcTemplate.update(sql(key, delta), args(key, delta));
+    }
+
+    private static String sql(StockKey key, long delta) {
+        if (delta > 0) {
+            return key.isSku() ? SKU_DEDUCT_SQL : PRODUCT_DEDUCT_SQL;
+        }
+        return key.isSku() ? SKU_RESTOCK_SQL : PRODUCT_RESTOCK_SQL;
+    }
+
+    private static Object[] args(StockKey key, long delta) {
+        long id = key.isSku() ? key.skuId() : key.productId();
+        return delta > 0 ? new Object[]{delta, id, delta} : new Object[]{-delta, id};
+    }
+
+    /**
+     * 归还可售库存；计数器不存在时不创建，初始化时会按数据库和待回写量计入
+     */
+    private void giveBack(StockKey key, int quantity) {
+        remoteCache.decrementAll(List.of(counterKey(key)), List.of((long) -quantity));
+    }
+
+    /**
+     * 计数器不存在时按数据库库存减去待回写量初始化，已存在时返回 false。
+     * 与回写并发（数据库已写入、待回写尚未减去）时初始值偏少，不会偏多
+     */
+    private boolean initialize(StockKey key) {
+        long stock = loadDatabaseStock(key);
+        byte[] pending = remoteCache.hashGetAll(PENDING_KEY).get(field(key));
+        long available = Math.max(stock - (pending != null ? parse(pending) : 0), 0);
+        return remoteCache.setIfAbsent(counterKey(key),
+                String.valueOf(available).getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    private long loadDatabaseStock(StockKey key) {
+        List<Integer> rows = key.isSku()
+                ? jdbcTemplate.queryForList(SKU_STOCK_SQL, Integer.class, key.skuId())
+                : jdbcTemplate.queryForList(PRODUCT_STOCK_SQL, Integer.class, key.productId());
+        if (rows.isEmpty()) {
+            throw new RuntimeException(key.isSku() ? "商品SKU不存在" : "商品不存在");
+        }
+        Integer stock = rows.get(0);
+        return stock != null ? stock : 0;
+    }
+
+    private static Map<StockKey, Integer> ordered(Map<StockKey, Integer> lines, String invalidMessage) {
+        Map<StockKey, Integer> ordered = new TreeMap<>(LOCK_ORDER);
+        ordered.putAll(lines);
+        ordered.forEach((key, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException(invalidMessage);
+            }
+        });
+        return ordered;
+    }
+
+    private static String counterKey(StockKey key) {
+        return COUNTER_PREFIX + field(key);
+    }
+
+    /**
+     * 待回写哈希的字段：商品为 p:商品ID，SKU 为 s:SKU ID:商品ID（失效详情缓存时需要商品ID）
+     */
+    private static String field(StockKey key) {
+        return key.isSku() ? "s:" + key.skuId() + ":" + key.productId() : "p:" + key.productId();
+    }
+
+    private static StockKey parseField(String field) {
+        String[] parts = field.split(":");
+        return "s".equals(parts[0])
+                ? StockKey.of(Long.parseLong(parts[2]), Long.parseLong(parts[1]))
+                : StockKey.of(Long.parseLong(parts[1]), null);
+    }
+
+    private static long parse(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+}
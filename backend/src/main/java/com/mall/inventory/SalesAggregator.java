@@ -0,0 +1,180 @@
+package com.mall.inventory;
+
+import com.mall.cache.ChangeBroadcaster;
+import com.mall.cache.ProductRankings;
+import com.mall.search.ProductSearchIndex;
+import com.mall.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 销量聚合器
+ * 事务提交后的销量增量先累加到分段计数器 {@link LongAdder}，定时合并为批量 {@code sales = sales + ?} 更新。
+ * 合并时增量立即计入搜索索引和首页榜单并转为"待写入"，写入成功后才清除，失败的留待下次重试；
+ * 因此榜单中的销量始终等于数据库中的销量加上待写入量，从数据库重新加载的商品需用 {@link #getPendingSales} 补齐。
+ * 写入成功的增量广播给其他实例，应用关闭时会做最后一次回写
+ */
+@Component
+public class SalesAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAggregator.class);
+
+    private static final String PRODUCT_SALES_SQL = "UPDATE products SET sales = sales + ? WHERE id = ?";
+    private static final String SKU_SALES_SQL = "UPDATE product_skus SET sales = sales + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRankings productRankings;
+
+    @Autowired
+    private ChangeBroadcaster changeBroadcaster;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final SalesCounters productSales = new SalesCounters();
+    private final SalesCounters skuSales = new SalesCounters();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        changeBroadcaster.subscribe(ChangeBroadcaster.PRODUCT_SALES, payload -> applySales(decode(payload)));
+    }
+
+    /**
+     * 累加销量；指定 SKU 时同时累加 SKU 和商品的销量。在当前事务提交后生效，回滚时不计入
+     */
+    public void increase(Long productId, Long skuId, int quantity) {
+        TransactionHooks.afterCommit(() -> {
+            productSales.add(productId, quantity);
+            if (skuId != null) {
+                skuSales.add(skuId, quantity);
+            }
+        });
+    }
+
+    /**
+     * 已计入搜索索引和榜单、尚未写入数据库的商品销量
+     */
+    public long getPendingSales(Long productId) {
+        return productSales.unwritten.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * 合并销量增量并批量回写
+     */
+    @Scheduled(fixedDelayString = "${mall.sales.flush-interval:1000}")
+    public synchronized void flush() {
+        Map<Long, Long> productDeltas = productSales.drain();
+        skuSales.drain();
+        if (!productDeltas.isEmpty()) {
+            applySales(productDeltas);
+        }
+
+        Map<Long, Long> written = writeBack(PRODUCT_SALES_SQL, productSales);
+        if (!written.isEmpty()) {
+            changeBroadcaster.publish(ChangeBroadcaster.PRODUCT_SALES, encode(written));
+        }
+        writeBack(SKU_SALES_SQL, skuSales);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void applySales(Map<Long, Long> deltas) {
+        productSearchIndex.addSales(deltas);
+        productRankings.addSales(deltas);
+    }
+
+    /**
+     * 在一个事务中写入全部待写入量，成功后从待写入中扣除并返回写入的增量；
+     * 失败时整批回滚并保留，下次重试不会重复累加已写入的行
+     */
+    private Map<Long, Long> writeBack(String sql, SalesCounters counters) {
+        Map<Long, Long> deltas = new HashMap<>(counters.unwritten);
+        if (deltas.isEmpty()) {
+            return deltas;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> args.add(new Object[]{delta, id}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, args));
+        } catch (RuntimeException e) {
+            log.error("Sales write-back failed, will retry: {}", e.getMessage());
+            return Map.of();
+        }
+        deltas.forEach((id, delta) -> counters.unwritten.computeIfPresent(id,
+                (key, value) -> value - delta == 0 ? null : value - delta));
+        return deltas;
+    }
+
+    private static String encode(Map<Long, Long> deltas) {
+        return deltas.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static Map<Long, Long> decode(String payload) {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (String part : payload.split(",")) {
+            int separator = part.indexOf(':');
+            if (separator > 0) {
+                deltas.merge(Long.parseLong(part.substring(0, separator)),
+                        Long.parseLong(part.substring(separator + 1)), Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    private static final class SalesCounters {
+        // 已提交、尚未合并的增量
+        private final Map<Long, LongAdder> counters = new ConcurrentHashMap<>();
+        // 已合并、尚未写入数据库的增量，只在 flush 中修改
+        private final Map<Long, Long> unwritten = new ConcurrentHashMap<>();
+
+        private void add(Long id, int quantity) {
+            counters.computeIfAbsent(id, key -> new LongAdder()).add(quantity);
+        }
+
+        /**
+         * 取出计数器中的增量并转入待写入，返回本次取出的增量
+         */
+        private Map<Long, Long> drain() {
+            Map<Long, Long> deltas = new HashMap<>();
+            counters.forEach((id, adder) -> {
+                long delta = adder.sumThenReset();
+                if (delta != 0) {
+                    deltas.put(id, delta);
+                    unwritten.merge(id, delta, Long::sum);
+                }
+            });
+            return deltas;
+        }
+    }
+}
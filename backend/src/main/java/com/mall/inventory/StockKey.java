@@ -0,0 +1,15 @@
+package com.mall.inventory;
+
+/**
+ * 库存键：SKU 库存优先，未指定 SKU 时为商品库存
+ */
+public record StockKey(Long productId, Long skuId) {
+
+    public static StockKey of(Long productId, Long skuId) {
+        return new StockKey(productId, skuId);
+    }
+
+    public boolean isSku() {
+        return skuId != null;
+    }
+}
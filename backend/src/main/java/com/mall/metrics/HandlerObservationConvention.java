@@ -0,0 +1,23 @@
+package com.mall.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 在 http.server.requests 指标上增加 handler 标签，按控制器方法区分延迟分布
+ */
+@Component
+public class HandlerObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        String name = handler instanceof HandlerMethod handlerMethod
+                ? RequestMetricsInterceptor.handlerName(handlerMethod) : "none";
+        return super.getLowCardinalityKeyValues(context).and("handler", name);
+    }
+}
@@ -0,0 +1,36 @@
+package com.mall.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate 会话事件监听器，把每条语句的执行次数和耗时累加到当前请求的统计中
+ * 通过 hibernate.session.events.auto 注册，每个会话一个实例
+ */
+public class QueryStatsSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statementStart();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statementEnd();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
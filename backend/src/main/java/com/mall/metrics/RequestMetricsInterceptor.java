@@ -0,0 +1,76 @@
+package com.mall.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按控制器方法记录每个请求的 SQL 条数和 SQL 总耗时
+ * 指标实例按方法缓存，请求路径上只有一次无锁的哈希查找和直方图记录
+ */
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Method, HandlerMeters> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            RequestQueryStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestQueryStats stats = RequestQueryStats.end();
+        if (stats == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        HandlerMeters handlerMeters = meters.get(handlerMethod.getMethod());
+        if (handlerMeters == null) {
+            handlerMeters = meters.computeIfAbsent(handlerMethod.getMethod(),
+                    method -> new HandlerMeters(meterRegistry, handlerName(handlerMethod)));
+        }
+        handlerMeters.queries.record(stats.getCount());
+        handlerMeters.queryTime.record(stats.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 指标中的控制器方法名，如 ProductController.getProducts
+     */
+    static String handlerName(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+
+    private static final class HandlerMeters {
+        private final DistributionSummary queries;
+        private final Timer queryTime;
+
+        private HandlerMeters(MeterRegistry registry, String handler) {
+            this.queries = DistributionSummary.builder("mall.request.queries")
+                    .description("每个请求执行的 SQL 条数")
+                    .tag("handler", handler)
+                    .register(registry);
+            this.queryTime = Timer.builder("mall.request.query.time")
+                    .description("每个请求的 SQL 执行总耗时")
+                    .tag("handler", handler)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.mall.metrics;
+
+/**
+ * 当前请求的 SQL 执行统计
+ * 每个请求线程独占一份，只在本线程内读写，无需同步
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private long nanos;
+    private long startedAt;
+
+    private RequestQueryStats() {
+    }
+
+    /**
+     * 请求开始时开启统计
+     */
+    static void begin() {
+        CURRENT.set(new RequestQueryStats());
+    }
+
+    /**
+     * 请求结束时取出统计，未开启时返回 null
+     */
+    static RequestQueryStats end() {
+        RequestQueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    void statementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    void statementEnd() {
+        if (startedAt != 0) {
+            nanos += System.nanoTime() - startedAt;
+            startedAt = 0;
+        }
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
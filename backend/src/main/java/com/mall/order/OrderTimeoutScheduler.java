@@ -0,0 +1,182 @@
+package com.mall.order;
+
+import com.mall.inventory.InventoryService;
+import com.mall.inventory.StockKey;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 未支付订单超时关闭
+ * 待支付订单的截止时间登记在内存时间轮中（登记、取消 O(1)），不再轮询订单表；
+ * 到期的订单分批关闭（状态改为已取消并记录关闭时间），事务提交后归还库存。
+ * 启动时通过 (status, create_time) 索引一次范围扫描重建时间轮
+ */
+@Component
+public class OrderTimeoutScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTimeoutScheduler.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_LEVELS = 4;
+
+    private static final String PENDING_SQL =
+            "SELECT id, create_time FROM orders WHERE status = 'PENDING_PAYMENT' ORDER BY create_time";
+    private static final String LOCK_SQL =
+            "SELECT id FROM orders WHERE id IN (:ids) AND status = 'PENDING_PAYMENT' FOR UPDATE";
+    private static final String CLOSE_SQL = "UPDATE orders SET status = 'CANCELLED', close_time = :time, " +
+            "update_time = :time WHERE id IN (:ids)";
+    private static final String ITEMS_SQL =
+            "SELECT product_id, product_sku_id, quantity FROM order_items WHERE order_id IN (:ids)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Value("${mall.order.pay-timeout:30m}")
+    private Duration payTimeout;
+
+    @Value("${mall.order.close-batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final TimingWheel wheel = new TimingWheel(System.currentTimeMillis(), TICK_MILLIS, WHEEL_BITS, WHEEL_LEVELS);
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 应用启动后登记所有待支付订单
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PENDING_SQL);
+            statement.setFetchSize(1000);
+            return statement;
+        }, rs -> {
+            Timestamp createTime = rs.getTimestamp("create_time");
+            schedule(rs.getLong("id"), createTime != null ? createTime.getTime() : start);
+            count[0]++;
+        });
+        log.info("Order timeout wheel rebuilt with {} pending orders in {} ms",
+                count[0], System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 登记新订单的支付截止时间
+     */
+    public void schedule(long orderId, long createMillis) {
+        synchronized (wheel) {
+            wheel.schedule(orderId, createMillis + payTimeout.toMillis());
+        }
+    }
+
+    /**
+     * 订单已支付或已取消，不再超时关闭
+     */
+    public void cancel(long orderId) {
+        synchronized (wheel) {
+            wheel.cancel(orderId);
+        }
+    }
+
+    /**
+     * 待关闭订单数
+     */
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * 推进时间轮并关闭到期订单
+     */
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void tick() {
+        long[] expired;
+        synchronized (wheel) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        for (int from = 0; from < expired.length; from += batchSize) {
+            long[] batch = Arrays.copyOfRange(expired, from, Math.min(from + batchSize, expired.length));
+            try {
+                close(batch);
+            } catch (RuntimeException e) {
+                // 关闭失败的订单稍后重试
+                long retryAt = System.currentTimeMillis() + TICK_MILLIS * 10;
+                synchronized (wheel) {
+                    for (long orderId : batch) {
+                        wheel.schedule(orderId, retryAt);
+                    }
+                }
+                log.error("Closing {} expired orders failed, will retry: {}", batch.length, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 锁定仍为待支付的订单并关闭，事务提交后归还这些订单的库存
+     */
+    private void close(long[] orderIds) {
+        List<Long> ids = new ArrayList<>(orderIds.length);
+        for (long orderId : orderIds) {
+            ids.add(orderId);
+        }
+
+        Integer restocked = transactionTemplate.execute(status -> {
+            List<Long> locked = namedParameterJdbcTemplate.queryForList(LOCK_SQL,
+                    new MapSqlParameterSource("ids", ids), Long.class);
+            if (locked.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", locked)
+                    .addValue("time", new Timestamp(System.currentTimeMillis()));
+            namedParameterJdbcTemplate.update(CLOSE_SQL, params);
+            Map<StockKey, Integer> lines = new HashMap<>();
+            namedParameterJdbcTemplate.query(ITEMS_SQL, params, rs -> {
+                long skuId = rs.getLong("product_sku_id");
+                StockKey key = StockKey.of(rs.getLong("product_id"), rs.wasNull() ? null : skuId);
+                lines.merge(key, rs.getInt("quantity"), Integer::sum);
+            });
+            inventoryService.restockAll(lines);
+            return lines.size();
+        });
+        log.debug("Closed expired orders, {} stock rows restocked", restocked);
+    }
+}
@@ -0,0 +1,290 @@
+package com.mall.order;
+
+import java.util.Arrays;
+
+/**
+ * 分层时间轮
+ * 每层 2^bits 个槽，第 L 层一个槽跨 2^(bits*L) 个刻度；到期时间只在进入更低一层时重新定位，
+ * 插入、取消均为 O(1)。条目以数组存储（槽内双向链表 + 键到下标的开放寻址索引），每个条目约 60 字节（含扩容余量）。
+ * 键必须为正数；非线程安全，由调用方加锁
+ */
+final class TimingWheel {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long startMillis;
+    private final long tickMillis;
+    private final int bits;
+    private final int levels;
+    private final int slotMask;
+    private final int[] heads;
+
+    // 已处理到的刻度
+    private long currentTick;
+
+    // 条目存储，空闲条目通过 next 串成链表
+    private long[] keys;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private int[] slots;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+
+    // 键 -> 条目下标，线性探测
+    private long[] indexKeys;
+    private int[] indexValues;
+
+    TimingWheel(long startMillis, long tickMillis, int bits, int levels) {
+        this.startMillis = startMillis;
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.levels = levels;
+        this.slotMask = (1 << bits) - 1;
+        this.heads = new int[levels << bits];
+        Arrays.fill(heads, NONE);
+
+        keys = new long[INITIAL_CAPACITY];
+        deadlines = new long[INITIAL_CAPACITY];
+        next = new int[INITIAL_CAPACITY];
+        prev = new int[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY];
+        indexKeys = new long[INITIAL_CAPACITY * 2];
+        indexValues = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * 登记到期时间，已登记的键改为新的到期时间
+     */
+    void schedule(long key, long deadlineMillis) {
+        int entry = find(key);
+        if (entry != NONE) {
+            unlink(entry);
+        } else {
+            entry = allocate();
+            keys[entry] = key;
+            indexPut(key, entry);
+            size++;
+        }
+        deadlines[entry] = deadlineMillis;
+        place(entry, currentTick + 1);
+    }
+
+    /**
+     * 取消登记，键不存在时返回 false
+     */
+    boolean cancel(long key) {
+        int entry = indexRemove(key);
+        if (entry == NONE) {
+            return false;
+        }
+        unlink(entry);
+        free(entry);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的键（已从时间轮移除）
+     */
+    long[] advance(long nowMillis) {
+        long target = tickOf(nowMillis);
+        if (size == 0) {
+            currentTick = Math.max(currentTick, target);
+            return new long[0];
+        }
+
+        long[] expired = new long[16];
+        int count = 0;
+        while (currentTick < target) {
+            currentTick++;
+            // 高层槽先降级，再触发第 0 层当前槽
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(level * (1 << bits) + slotIndex(currentTick, level));
+                }
+            }
+            int slot = slotIndex(currentTick, 0);
+            int entry = heads[slot];
+            heads[slot] = NONE;
+            while (entry != NONE) {
+                int following = next[entry];
+                if (tickOf(deadlines[entry]) > currentTick) {
+                    // 超出时间轮跨度而被截断的条目，重新定位
+                    place(entry, currentTick + 1);
+                } else {
+                    if (count == expired.length) {
+                        expired = Arrays.copyOf(expired, count * 2);
+                    }
+                    expired[count++] = keys[entry];
+                    indexRemove(keys[entry]);
+                    free(entry);
+                    size--;
+                }
+                entry = following;
+            }
+            if (size == 0) {
+                currentTick = target;
+            }
+        }
+        return Arrays.copyOf(expired, count);
+    }
+
+    private void cascade(int slot) {
+        int entry = heads[slot];
+        heads[slot] = NONE;
+        while (entry != NONE) {
+            int following = next[entry];
+            place(entry, currentTick);
+            entry = following;
+        }
+    }
+
+    /**
+     * 放入与当前刻度共享高位的最低一层，早于 minTick 的按 minTick 放置
+     */
+    private void place(int entry, long minTick) {
+        long tick = Math.max(tickOf(deadlines[entry]), minTick);
+        int level = 0;
+        while (level < levels - 1 && (tick >>> (bits * (level + 1))) != (currentTick >>> (bits * (level + 1)))) {
+            level++;
+        }
+        long maxTick = level == levels - 1 && bits * levels < 63
+                ? ((currentTick >>> (bits * levels)) + 1 << (bits * levels)) - 1 : Long.MAX_VALUE;
+        if (tick > maxTick) {
+            // 超出最高层跨度时放在最高层最远的槽，降级时再重新定位
+            tick = maxTick;
+        }
+        link(entry, level * (1 << bits) + slotIndex(tick, level));
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) (tick >>> (bits * level)) & slotMask;
+    }
+
+    private long tickOf(long millis) {
+        return Math.floorDiv(millis - startMillis, tickMillis);
+    }
+
+    private void link(int entry, int slot) {
+        int head = heads[slot];
+        next[entry] = head;
+        prev[entry] = NONE;
+        if (head != NONE) {
+            prev[head] = entry;
+        }
+        heads[slot] = entry;
+        slots[entry] = slot;
+    }
+
+    private void unlink(int entry) {
+        int slot = slots[entry];
+        if (prev[entry] != NONE) {
+            next[prev[entry]] = next[entry];
+        } else if (slot != NONE) {
+            heads[slot] = next[entry];
+        }
+        if (next[entry] != NONE) {
+            prev[next[entry]] = prev[entry];
+        }
+        slots[entry] = NONE;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int entry = freeHead;
+            freeHead = next[entry];
+            return entry;
+        }
+        if (used == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        return used++;
+    }
+
+    private void free(int entry) {
+        keys[entry] = 0;
+        slots[entry] = NONE;
+        next[entry] = freeHead;
+        freeHead = entry;
+    }
+
+    private int find(long key) {
+        int mask = indexKeys.length - 1;
+        for (int i = hash(key) & mask; indexKeys[i] != 0; i = (i + 1) & mask) {
+            if (indexKeys[i] == key) {
+                return indexValues[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void indexPut(long key, int entry) {
+        // 装载因子不超过 1/2
+        if ((size + 1) * 2 > indexKeys.length) {
+            long[] oldKeys = indexKeys;
+            int[] oldValues = indexValues;
+            indexKeys = new long[oldKeys.length * 2];
+            indexValues = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+        insert(key, entry);
+    }
+
+    private void insert(long key, int entry) {
+        int mask = indexKeys.length - 1;
+        int i = hash(key) & mask;
+        while (indexKeys[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        indexKeys[i] = key;
+        indexValues[i] = entry;
+    }
+
+    /**
+     * 删除键并前移后续探测链上的键（不留墓碑）
+     */
+    private int indexRemove(long key) {
+        int mask = indexKeys.length - 1;
+        int i = hash(key) & mask;
+        while (indexKeys[i] != key) {
+            if (indexKeys[i] == 0) {
+                return NONE;
+            }
+            i = (i + 1) & mask;
+        }
+        int entry = indexValues[i];
+        int hole = i;
+        for (int j = (hole + 1) & mask; indexKeys[j] != 0; j = (j + 1) & mask) {
+            int home = hash(indexKeys[j]) & mask;
+            // home 不在 (hole, j] 区间内时可以移到 hole
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                indexKeys[hole] = indexKeys[j];
+                indexValues[hole] = indexValues[j];
+                hole = j;
+            }
+        }
+        indexKeys[hole] = 0;
+        return entry;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
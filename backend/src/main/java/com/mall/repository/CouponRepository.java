@@ -0,0 +1,20 @@
+package com.mall.repository;
+
+import com.mall.entity.Coupon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 优惠券数据访问层
+ */
+@Repository
+public interface CouponRepository extends JpaRepository<Coupon, Long> {
+
+    /**
+     * 指定状态且未结束的优惠券
+     */
+    List<Coupon> findByStatusAndEndTimeAfter(Coupon.CouponStatus status, LocalDateTime time);
+}
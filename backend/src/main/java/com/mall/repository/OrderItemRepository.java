@@ -0,0 +1,23 @@
+package com.mall.repository;
+
+import com.mall.entity.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订单项数据访问层
+ */
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * 批量加载多个订单的订单项
+     */
+    @Query("SELECT i FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
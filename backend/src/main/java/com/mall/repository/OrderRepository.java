@@ -0,0 +1,31 @@
+package com.mall.repository;
+
+import com.mall.entity.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 订单数据访问层
+ */
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * 用户的订单（按创建时间倒序）
+     */
+    Page<Order> findByUserIdOrderByCreateTimeDesc(Long userId, Pageable pageable);
+
+    /**
+     * 用户的指定订单
+     */
+    Optional<Order> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * 根据订单号查找订单
+     */
+    Optional<Order> findByOrderNo(String orderNo);
+}
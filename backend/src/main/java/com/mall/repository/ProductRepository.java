@@ -1,14 +1,17 @@
 package com.mall.repository;
 
+import com.mall.dto.ProductCard;
 import com.mall.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,6 +20,13 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * 商品卡片投影（不加载 detail、subImages 及关联对象）
+     */
+    String CARD_SELECT = "SELECT new com.mall.dto.ProductCard(p.id, p.name, p.subtitle, p.mainImage, p.price, " +
+            "p.originalPrice, p.stock, p.sales, p.status, p.category.id, p.isHot, p.isNew, p.isRecommend, p.sortOrder) " +
+            "FROM Product p ";
+
     /**
      * 根据状态查找商品
      */
@@ -82,23 +92,113 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findRelatedProducts(@Param("categoryId") Long categoryId, @Param("productId") Long productId, Pageable pageable);
 
     /**
-     * 多条件搜索商品
-     */
-    @Query("SELECT p FROM Product p WHERE " +
-           "(:keyword IS NULL OR p.name LIKE %:keyword% OR p.keywords LIKE %:keyword%) AND " +
-           "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-           "p.status = 'ON_SALE' " +
-           "ORDER BY " +
-           "CASE WHEN :sortBy = 'price_asc' THEN p.price END ASC, " +
-           "CASE WHEN :sortBy = 'price_desc' THEN p.price END DESC, " +
-           "CASE WHEN :sortBy = 'sales' THEN p.sales END DESC, " +
-           "p.sortOrder DESC")
-    Page<Product> searchProducts(@Param("keyword") String keyword,
-                                @Param("categoryId") Long categoryId,
-                                @Param("minPrice") BigDecimal minPrice,
-                                @Param("maxPrice") BigDecimal maxPrice,
-                                @Param("sortBy") String sortBy,
-                                Pageable pageable);
+     * 在售商品卡片
+     */
+    @Query(value = CARD_SELECT + "WHERE p.status = :status ORDER BY p.sortOrder DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = :status")
+    Page<ProductCard> findCardsByStatus(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 分类商品卡片
+     */
+    @Query(value = CARD_SELECT + "WHERE p.category.id = :categoryId AND p.status = :status ORDER BY p.sortOrder DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.status = :status")
+    Page<ProductCard> findCardsByCategory(@Param("categoryId") Long categoryId,
+                                          @Param("status") Product.ProductStatus status,
+                                          Pageable pageable);
+
+    /**
+     * 热门商品卡片
+     */
+    @Query(value = CARD_SELECT + "WHERE p.isHot = true AND p.status = :status ORDER BY p.sortOrder DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isHot = true AND p.status = :status")
+    Page<ProductCard> findHotCards(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 新品卡片
+     */
+    @Query(value = CARD_SELECT + "WHERE p.isNew = true AND p.status = :status ORDER BY p.sortOrder DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isNew = true AND p.status = :status")
+    Page<ProductCard> findNewCards(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 推荐商品卡片
+     */
+    @Query(value = CARD_SELECT + "WHERE p.isRecommend = true AND p.status = :status ORDER BY p.sortOrder DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isRecommend = true AND p.status = :status")
+    Page<ProductCard> findRecommendCards(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 按销量排序的商品卡片
+     */
+    @Query(value = CARD_SELECT + "WHERE p.status = :status ORDER BY p.sales DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = :status")
+    Page<ProductCard> findCardsOrderBySales(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 相关商品卡片（同分类）
+     */
+    @Query(CARD_SELECT + "WHERE p.category.id = :categoryId AND p.id != :productId AND p.status = 'ON_SALE' ORDER BY p.sales DESC")
+    List<ProductCard> findRelatedCards(@Param("categoryId") Long categoryId, @Param("productId") Long productId, Pageable pageable);
+
+    /**
+     * 按ID批量查询商品卡片
+     */
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<ProductCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 游标分页：按排序值的第一页
+     */
+    @Query(CARD_SELECT + "WHERE p.status = :status ORDER BY p.sortOrder DESC, p.id DESC")
+    Slice<ProductCard> seekCardsBySortOrder(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 游标分页：按排序值定位到游标之后
+     */
+    @Query(CARD_SELECT + "WHERE p.status = :status AND " +
+           "(p.sortOrder < :sortOrder OR (p.sortOrder = :sortOrder AND p.id < :id)) " +
+           "ORDER BY p.sortOrder DESC, p.id DESC")
+    Slice<ProductCard> seekCardsBySortOrderAfter(@Param("status") Product.ProductStatus status,
+                                                 @Param("sortOrder") Integer sortOrder,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    /**
+     * 游标分页：分类内按排序值的第一页
+     */
+    @Query(CARD_SELECT + "WHERE p.category.id = :categoryId AND p.status = :status " +
+           "ORDER BY p.sortOrder DESC, p.id DESC")
+    Slice<ProductCard> seekCategoryCardsBySortOrder(@Param("categoryId") Long categoryId,
+                                                    @Param("status") Product.ProductStatus status,
+                                                    Pageable pageable);
+
+    /**
+     * 游标分页：分类内按排序值定位到游标之后
+     */
+    @Query(CARD_SELECT + "WHERE p.category.id = :categoryId AND p.status = :status AND " +
+           "(p.sortOrder < :sortOrder OR (p.sortOrder = :sortOrder AND p.id < :id)) " +
+           "ORDER BY p.sortOrder DESC, p.id DESC")
+    Slice<ProductCard> seekCategoryCardsBySortOrderAfter(@Param("categoryId") Long categoryId,
+                                                         @Param("status") Product.ProductStatus status,
+                                                         @Param("sortOrder") Integer sortOrder,
+                                                         @Param("id") Long id,
+                                                         Pageable pageable);
+
+    /**
+     * 游标分页：按销量的第一页
+     */
+    @Query(CARD_SELECT + "WHERE p.status = :status ORDER BY p.sales DESC, p.id DESC")
+    Slice<ProductCard> seekCardsBySales(@Param("status") Product.ProductStatus status, Pageable pageable);
+
+    /**
+     * 游标分页：按销量定位到游标之后
+     */
+    @Query(CARD_SELECT + "WHERE p.status = :status AND " +
+           "(p.sales < :sales OR (p.sales = :sales AND p.id < :id)) " +
+           "ORDER BY p.sales DESC, p.id DESC")
+    Slice<ProductCard> seekCardsBySalesAfter(@Param("status") Product.ProductStatus status,
+                                             @Param("sales") Integer sales,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.mall.repository;
+
+import com.mall.dto.ProductCard;
+import com.mall.entity.Product;
+import com.mall.search.ProductTokenizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 商品多条件搜索的查询规划（替代原 ProductRepository.searchProducts 的单条 ":参数 IS NULL OR" 查询）
+ * 按实际出现的筛选条件和排序方式生成专用查询（只包含非空条件，排序直接使用列），
+ * 每种排序都有对应的复合索引：(status, 排序列, id)，带分类时为 (category_id, status, 排序列, id)。
+ * 条件和排序与内存搜索索引 {@link com.mall.search.ProductSearchIndex} 一致：关键词按同一分词器切分，
+ * 每个词项需在名称或关键词中出现（不区分大小写），同值时按 id 排序。内存索引未就绪时由这里回退查询，
+ * 两边结果一致，索引就绪前后翻页不会出现重复或遗漏；原整串 LIKE 命中的商品都包含其全部词项，仍会命中。
+ * 关键词 LIKE '%...%' 无法走索引，此时按排序索引顺序扫描并过滤，取满一页即可停止
+ */
+@Component
+public class ProductSearchPlanner {
+
+    private static final int CATEGORY = 1;
+    private static final int MIN_PRICE = 1 << 1;
+    private static final int MAX_PRICE = 1 << 2;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 筛选条件组合 + 关键词词项数 + 排序方式 -> 查询语句
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * 搜索在售商品卡片，sortBy 为 price_asc、price_desc、sales，其余按默认排序
+     */
+    public Page<ProductCard> search(String keyword, Long categoryId, BigDecimal minPrice,
+                                    BigDecimal maxPrice, String sortBy, Pageable pageable) {
+        List<String> terms = keyword != null && !keyword.isBlank() ? ProductTokenizer.queryTerms(keyword) : List.of();
+        if (keyword != null && !keyword.isBlank() && terms.isEmpty()) {
+            // 关键词全是分隔符时内存索引不命中任何商品
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        int filters = (categoryId != null ? CATEGORY : 0)
+                | (minPrice != null ? MIN_PRICE : 0)
+                | (maxPrice != null ? MAX_PRICE : 0);
+        Sort sort = Sort.of(sortBy);
+        int termCount = terms.size();
+        Shape shape = shapes.computeIfAbsent(filters + ":" + termCount + ":" + sort,
+                key -> Shape.build(filters, termCount, sort));
+
+        TypedQuery<ProductCard> query = entityManager.createQuery(shape.select, ProductCard.class);
+        TypedQuery<Long> countQuery = entityManager.createQuery(shape.count, Long.class);
+        bind(query, terms, categoryId, minPrice, maxPrice);
+        bind(countQuery, terms, categoryId, minPrice, maxPrice);
+
+        List<ProductCard> content = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // 第一页未取满时总数就是本页条数，省去计数查询
+        long total = pageable.getOffset() == 0 && content.size() < pageable.getPageSize()
+                ? content.size() : countQuery.getSingleResult();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static void bind(TypedQuery<?> query, List<String> terms, Long categoryId,
+                             BigDecimal minPrice, BigDecimal maxPrice) {
+        query.setParameter("status", Product.ProductStatus.ON_SALE);
+        for (int i = 0; i < terms.size(); i++) {
+            // 词项只含字母、数字和中日韩文字，不会出现 LIKE 通配符
+            query.setParameter("term" + i, "%" + terms.get(i) + "%");
+        }
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (minPrice != null) {
+            query.setParameter("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            query.setParameter("maxPrice", maxPrice);
+        }
+    }
+
+    /**
+     * 排序方式及对应的 ORDER BY（以 id 收尾，与索引列顺序一致）
+     */
+    enum Sort {
+        PRICE_ASC("p.price ASC, p.id ASC"),
+        PRICE_DESC("p.price DESC, p.id DESC"),
+        SALES("p.sales DESC, p.id DESC"),
+        DEFAULT("p.sortOrder DESC, p.id DESC");
+
+        private final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+
+        static Sort of(String sortBy) {
+            if ("price_asc".equals(sortBy)) {
+                return PRICE_ASC;
+            } else if ("price_desc".equals(sortBy)) {
+                return PRICE_DESC;
+            } else if ("sales".equals(sortBy)) {
+                return SALES;
+            }
+            return DEFAULT;
+        }
+    }
+
+    private static final class Shape {
+        private final String select;
+        private final String count;
+
+        private Shape(String select, String count) {
+            this.select = select;
+            this.count = count;
+        }
+
+        static Shape build(int filters, int termCount, Sort sort) {
+            // 分类条件放在最前，与带分类的索引前缀对应
+            StringBuilder where = new StringBuilder("WHERE ");
+            if ((filters & CATEGORY) != 0) {
+                where.append("p.category.id = :categoryId AND ");
+            }
+            where.append("p.status = :status AND (p.deleted IS NULL OR p.deleted = FALSE)");
+            if ((filters & MIN_PRICE) != 0) {
+                where.append(" AND p.price >= :minPrice");
+            }
+            if ((filters & MAX_PRICE) != 0) {
+                where.append(" AND p.price <= :maxPrice");
+            }
+            for (int i = 0; i < termCount; i++) {
+                where.append(" AND (LOWER(p.name) LIKE :term").append(i)
+                        .append(" OR LOWER(p.keywords) LIKE :term").append(i).append(")");
+            }
+            return new Shape(
+                    ProductRepository.CARD_SELECT + where + " ORDER BY " + sort.orderBy,
+                    "SELECT COUNT(p) FROM Product p " + where);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.mall.repository;
+
+import com.mall.entity.ProductSku;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 商品SKU数据访问层
+ */
+@Repository
+public interface ProductSkuRepository extends JpaRepository<ProductSku, Long> {
+}
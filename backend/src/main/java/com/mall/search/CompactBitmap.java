@@ -0,0 +1,251 @@
+package com.mall.search;
+
+import java.util.Arrays;
+
+/**
+ * 压缩位图（Roaring 式分块）
+ * 按高 16 位分成 65536 个序号一块：块内不超过 4096 个序号时存有序 char 数组，否则存 1024 个 long 的位图，
+ * 稀疏的分类位图只占用与元素数成正比的空间。与 BitSet 的 long[] 字直接做交集、并集和交集计数。
+ * 非线程安全，由调用方加锁
+ */
+final class CompactBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int CHUNK_WORDS = 1024;
+
+    private Container[] containers = new Container[0];
+    private int cardinality;
+
+    boolean add(int value) {
+        int high = value >>> 16;
+        if (high >= containers.length) {
+            containers = Arrays.copyOf(containers, high + 1);
+        }
+        Container container = containers[high];
+        if (container == null) {
+            container = new Container();
+            containers[high] = container;
+        }
+        if (!container.add((char) value)) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    boolean remove(int value) {
+        int high = value >>> 16;
+        Container container = high < containers.length ? containers[high] : null;
+        if (container == null || !container.remove((char) value)) {
+            return false;
+        }
+        if (container.size == 0) {
+            containers[high] = null;
+        }
+        cardinality--;
+        return true;
+    }
+
+    boolean contains(int value) {
+        int high = value >>> 16;
+        Container container = high < containers.length ? containers[high] : null;
+        return container != null && container.contains((char) value);
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * 与 words 表示的位集合的交集大小
+     */
+    int andCardinality(long[] words) {
+        int count = 0;
+        int chunks = Math.min(containers.length, chunkCount(words));
+        for (int high = 0; high < chunks; high++) {
+            Container container = containers[high];
+            if (container != null) {
+                count += container.andCardinality(words, high * CHUNK_WORDS);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * words &= this
+     */
+    void and(long[] words) {
+        int chunks = chunkCount(words);
+        for (int high = 0; high < chunks; high++) {
+            int base = high * CHUNK_WORDS;
+            int length = Math.min(CHUNK_WORDS, words.length - base);
+            Container container = high < containers.length ? containers[high] : null;
+            if (container == null) {
+                Arrays.fill(words, base, base + length, 0L);
+            } else {
+                container.and(words, base, length);
+            }
+        }
+    }
+
+    /**
+     * words |= this（超出 words 长度的序号忽略）
+     */
+    void or(long[] words) {
+        int chunks = Math.min(containers.length, chunkCount(words));
+        for (int high = 0; high < chunks; high++) {
+            Container container = containers[high];
+            if (container != null) {
+                int base = high * CHUNK_WORDS;
+                container.or(words, base, Math.min(CHUNK_WORDS, words.length - base));
+            }
+        }
+    }
+
+    private static int chunkCount(long[] words) {
+        return (words.length + CHUNK_WORDS - 1) / CHUNK_WORDS;
+    }
+
+    /**
+     * 一块内的序号（低 16 位），values 为 null 时使用 bits
+     */
+    private static final class Container {
+        private char[] values = new char[4];
+        private long[] bits;
+        private int size;
+
+        boolean add(char low) {
+            if (values == null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bits[low >>> 6] |= mask;
+                size++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (size == ARRAY_MAX) {
+                toBits();
+                return add(low);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (values == null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bits[low >>> 6] &= ~mask;
+                size--;
+                // 留一半余量再转回数组，避免在临界点反复转换
+                if (size <= ARRAY_MAX / 2) {
+                    toValues();
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            if (values == null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        int andCardinality(long[] words, int base) {
+            int count = 0;
+            if (values == null) {
+                int length = Math.min(CHUNK_WORDS, words.length - base);
+                for (int i = 0; i < length; i++) {
+                    count += Long.bitCount(bits[i] & words[base + i]);
+                }
+                return count;
+            }
+            for (int i = 0; i < size; i++) {
+                int index = base + (values[i] >>> 6);
+                if (index < words.length && (words[index] & (1L << values[i])) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        void and(long[] words, int base, int length) {
+            if (values == null) {
+                for (int i = 0; i < length; i++) {
+                    words[base + i] &= bits[i];
+                }
+                return;
+            }
+            long[] kept = new long[length];
+            for (int i = 0; i < size; i++) {
+                int index = values[i] >>> 6;
+                if (index < length) {
+                    kept[index] |= words[base + index] & (1L << values[i]);
+                }
+            }
+            System.arraycopy(kept, 0, words, base, length);
+        }
+
+        void or(long[] words, int base, int length) {
+            if (values == null) {
+                for (int i = 0; i < length; i++) {
+                    words[base + i] |= bits[i];
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int index = values[i] >>> 6;
+                if (index < length) {
+                    words[base + index] |= 1L << values[i];
+                }
+            }
+        }
+
+        private void toBits() {
+            bits = new long[CHUNK_WORDS];
+            for (int i = 0; i < size; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            char[] sorted = new char[Math.max(size, 4)];
+            int count = 0;
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                long word = bits[i];
+                while (word != 0) {
+                    sorted[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = sorted;
+            bits = null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mall.search;
+
+import com.mall.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * 索引中的商品快照（只保留检索、过滤和排序需要的字段）
+ */
+public final class IndexedProduct {
+
+    private final Long id;
+    private final Long categoryId;
+    private final BigDecimal price;
+    private final int sales;
+    private final int sortOrder;
+    private final boolean hot;
+    private final boolean newArrival;
+    private final boolean recommend;
+    private final boolean onSale;
+    private final Set<String> terms;
+
+    private IndexedProduct(Long id, Long categoryId, BigDecimal price, int sales, int sortOrder,
+                           boolean hot, boolean newArrival, boolean recommend, boolean onSale, Set<String> terms) {
+        this.id = id;
+        this.categoryId = categoryId;
+        this.price = price;
+        this.sales = sales;
+        this.sortOrder = sortOrder;
+        this.hot = hot;
+        this.newArrival = newArrival;
+        this.recommend = recommend;
+        this.onSale = onSale;
+        this.terms = terms;
+    }
+
+    public static IndexedProduct from(Product product) {
+        Set<String> terms = ProductTokenizer.indexTerms(product.getName());
+        terms.addAll(ProductTokenizer.indexTerms(product.getKeywords()));
+
+        boolean onSale = product.getStatus() == Product.ProductStatus.ON_SALE
+                && !Boolean.TRUE.equals(product.getDeleted());
+
+        return new IndexedProduct(
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO,
+                product.getSales() != null ? product.getSales() : 0,
+                product.getSortOrder() != null ? product.getSortOrder() : 0,
+                Boolean.TRUE.equals(product.getIsHot()),
+                Boolean.TRUE.equals(product.getIsNew()),
+                Boolean.TRUE.equals(product.getIsRecommend()),
+                onSale,
+                terms
+        );
+    }
+
+    /**
+     * 复制一份更新了销量的快照
+     */
+    public IndexedProduct withSales(int sales) {
+        return new IndexedProduct(id, categoryId, price, sales, sortOrder, hot, newArrival, recommend, onSale, terms);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public int getSales() {
+        return sales;
+    }
+
+    public int getSortOrder() {
+        return sortOrder;
+    }
+
+    public boolean isHot() {
+        return hot;
+    }
+
+    public boolean isNewArrival() {
+        return newArrival;
+    }
+
+    public boolean isRecommend() {
+        return recommend;
+    }
+
+    public boolean isOnSale() {
+        return onSale;
+    }
+
+    public Set<String> getTerms() {
+        return terms;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mall.search;
+
+import java.nio.charset.Charset;
+
+/**
+ * 汉字拼音首字母
+ * GB2312 一级汉字按拼音排序，按编码区间即可得到首字母；二级汉字（按部首排序）和其他汉字没有首字母。
+ * 启动时为 CJK 基本区建一张查找表
+ */
+final class PinyinInitials {
+
+    private static final int CJK_START = 0x4E00;
+    private static final int CJK_END = 0x9FA5;
+
+    // 各首字母在 GB2312 中的起始编码，最后一项为一级汉字结束位置
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE, 0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8,
+            0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA, 0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1, 0xD7FA
+    };
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+
+    private static final char[] TABLE = new char[CJK_END - CJK_START + 1];
+
+    static {
+        Charset gb2312 = Charset.forName("GB2312");
+        for (int cp = CJK_START; cp <= CJK_END; cp++) {
+            byte[] bytes = String.valueOf((char) cp).getBytes(gb2312);
+            if (bytes.length == 2) {
+                TABLE[cp - CJK_START] = lookup((bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF));
+            }
+        }
+    }
+
+    private PinyinInitials() {
+    }
+
+    /**
+     * 首字母串：汉字取首字母，英文数字转小写保留，其余字符忽略，如 "Apple 苹果手机" -> "applepgsj"
+     */
+    static String of(String text) {
+        StringBuilder initials = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= CJK_START && c <= CJK_END) {
+                char initial = TABLE[c - CJK_START];
+                if (initial != 0) {
+                    initials.append(initial);
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                initials.append(Character.toLowerCase(c));
+            }
+        }
+        return initials.toString();
+    }
+
+    /**
+     * 是否包含汉字
+     */
+    static boolean containsHan(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= CJK_START && c <= CJK_END) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char lookup(int code) {
+        if (code < BOUNDARIES[0] || code >= BOUNDARIES[BOUNDARIES.length - 1]) {
+            return 0;
+        }
+        int i = 1;
+        while (code >= BOUNDARIES[i]) {
+            i++;
+        }
+        return LETTERS[i - 1];
+    }
+}
@@ -0,0 +1,448 @@
+package com.mall.search;
+
+import com.mall.dto.ProductFacets;
+import com.mall.entity.Product;
+import com.mall.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品倒排索引
+ * 启动时从在售商品构建，商品保存、上下架时增量更新；搜索只回表加载当前页的商品。
+ * 另按分类、标签、价格区间维护压缩位图，筛选和分面计数都是位图交集，不再逐个比较
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // 价格区间分界点，n 个分界点划分出 n+1 个区间
+    @Value("${mall.search.price-buckets:50,100,200,500,1000,2000,5000}")
+    private BigDecimal[] priceBoundaries;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 词项 -> 文档序号位图，有序以支持英文前缀匹配
+    private final TreeMap<String, BitSet> postings = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<IndexedProduct> documents = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    // 分面位图：分类、标签、价格区间 -> 文档序号
+    private final Map<Long, CompactBitmap> categoryBitmaps = new HashMap<>();
+    private final CompactBitmap hotBitmap = new CompactBitmap();
+    private final CompactBitmap newBitmap = new CompactBitmap();
+    private final CompactBitmap recommendBitmap = new CompactBitmap();
+    private CompactBitmap[] priceBitmaps;
+
+    // 全量构建期间到达的增量更新，构建完成后按到达顺序重放，避免被构建时读到的旧数据覆盖；仅在持有写锁时访问
+    private List<Runnable> deferred;
+
+    private volatile boolean ready = false;
+
+    @PostConstruct
+    public void init() {
+        Arrays.sort(priceBoundaries);
+        priceBitmaps = new CompactBitmap[priceBoundaries.length + 1];
+        for (int i = 0; i < priceBitmaps.length; i++) {
+            priceBitmaps[i] = new CompactBitmap();
+        }
+    }
+
+    /**
+     * 应用启动后全量构建索引。
+     * 分页读取期间其他线程提交的变更可能早于或晚于某一页的读取，因此先暂存这期间的增量更新，
+     * 全部页面写入后再按顺序重放，最终状态以最后一次增量更新为准
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        withWriteLock(() -> deferred = new ArrayList<>());
+        try {
+            int pageNo = 0;
+            Page<Product> page;
+            do {
+                page = productRepository.findByStatusOrderBySortOrderDesc(
+                        Product.ProductStatus.ON_SALE, PageRequest.of(pageNo++, LOAD_BATCH_SIZE));
+                List<IndexedProduct> loaded = page.map(IndexedProduct::from).getContent();
+                withWriteLock(() -> loaded.forEach(this::applyInternal));
+            } while (page.hasNext());
+        } finally {
+            withWriteLock(() -> {
+                int replayed = deferred.size();
+                deferred.forEach(Runnable::run);
+                deferred = null;
+                log.debug("Replayed {} deferred index updates", replayed);
+            });
+        }
+
+        ready = true;
+        log.info("Product search index built: {} products, {} terms in {} ms",
+                live.cardinality(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 新增或更新商品索引，非在售商品会被移出索引
+     */
+    public void apply(IndexedProduct document) {
+        update(() -> applyInternal(document));
+    }
+
+    public void applyAll(Collection<IndexedProduct> documents) {
+        documents.forEach(this::apply);
+    }
+
+    /**
+     * 累加商品销量（词项不变，只替换快照）
+     */
+    public void addSales(Map<Long, Long> deltas) {
+        update(() -> deltas.forEach((productId, delta) -> {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal != null) {
+                IndexedProduct document = documents.get(ordinal);
+                documents.set(ordinal, document.withSales((int) (document.getSales() + delta)));
+            }
+        }));
+    }
+
+    /**
+     * 移除商品索引
+     */
+    public void remove(Long productId) {
+        update(() -> removeInternal(productId));
+    }
+
+    /**
+     * 搜索在售商品，返回当前页的商品ID（已排序）和命中总数
+     */
+    public Page<Long> search(String keyword, Long categoryId, BigDecimal minPrice,
+                             BigDecimal maxPrice, String sortBy, Pageable pageable) {
+        // 只保留排在前 offset + size 位的命中（堆顶是其中最差的一个），不对全部命中排序
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        Comparator<IndexedProduct> order = comparator(sortBy);
+        PriorityQueue<IndexedProduct> top = new PriorityQueue<>(order.reversed());
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            long[] candidates = match(keyword).toLongArray();
+            filterCategory(candidates, categoryId);
+            filterPrice(candidates, minPrice, maxPrice);
+            BitSet matched = BitSet.valueOf(candidates);
+            for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+                total++;
+                IndexedProduct document = documents.get(i);
+                if (top.size() < limit) {
+                    top.add(document);
+                } else if (order.compare(document, top.peek()) < 0) {
+                    top.poll();
+                    top.add(document);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<IndexedProduct> hits = new ArrayList<>(top);
+        hits.sort(order);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        List<Long> ids = new ArrayList<>(hits.size() - from);
+        for (int i = from; i < hits.size(); i++) {
+            ids.add(hits.get(i).getId());
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    /**
+     * 统计搜索结果的分面计数，条件与 {@link #search} 相同
+     */
+    public ProductFacets facets(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            long[] matched = match(keyword).toLongArray();
+
+            // 分类计数只应用价格条件
+            long[] byPrice = matched.clone();
+            filterPrice(byPrice, minPrice, maxPrice);
+            List<ProductFacets.CategoryCount> categories = new ArrayList<>();
+            categoryBitmaps.forEach((id, bitmap) -> {
+                int count = bitmap.andCardinality(byPrice);
+                if (count > 0) {
+                    categories.add(new ProductFacets.CategoryCount(id, count));
+                }
+            });
+            categories.sort(Comparator.comparingInt(ProductFacets.CategoryCount::getCount).reversed()
+                    .thenComparing(ProductFacets.CategoryCount::getCategoryId));
+
+            // 价格区间计数只应用分类条件
+            long[] result = matched;
+            filterCategory(result, categoryId);
+            List<ProductFacets.PriceRangeCount> priceRanges = new ArrayList<>(priceBitmaps.length);
+            for (int i = 0; i < priceBitmaps.length; i++) {
+                priceRanges.add(new ProductFacets.PriceRangeCount(
+                        i == 0 ? BigDecimal.ZERO : priceBoundaries[i - 1],
+                        i < priceBoundaries.length ? priceBoundaries[i] : null,
+                        priceBitmaps[i].andCardinality(result)));
+            }
+
+            filterPrice(result, minPrice, maxPrice);
+            int total = 0;
+            for (long word : result) {
+                total += Long.bitCount(word);
+            }
+            return new ProductFacets(total, categories, priceRanges, hotBitmap.andCardinality(result),
+                    newBitmap.andCardinality(result), recommendBitmap.andCardinality(result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void filterCategory(long[] candidates, Long categoryId) {
+        if (categoryId == null) {
+            return;
+        }
+        CompactBitmap bitmap = categoryBitmaps.get(categoryId);
+        if (bitmap == null) {
+            Arrays.fill(candidates, 0L);
+        } else {
+            bitmap.and(candidates);
+        }
+    }
+
+    /**
+     * 整体落在价格条件内的区间直接取位图，与条件部分相交的区间再逐个比较价格
+     */
+    private void filterPrice(long[] candidates, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return;
+        }
+        long[] mask = new long[candidates.length];
+        for (int i = 0; i < priceBitmaps.length; i++) {
+            // 第一个区间包含负价格，不设下限
+            BigDecimal lower = i == 0 ? null : priceBoundaries[i - 1];
+            BigDecimal upper = i < priceBoundaries.length ? priceBoundaries[i] : null;
+            if ((minPrice != null && upper != null && upper.compareTo(minPrice) <= 0)
+                    || (maxPrice != null && lower != null && lower.compareTo(maxPrice) > 0)) {
+                continue;
+            }
+            boolean covered = (minPrice == null || (lower != null && lower.compareTo(minPrice) >= 0))
+                    && (maxPrice == null || (upper != null && upper.compareTo(maxPrice) <= 0));
+            if (covered) {
+                priceBitmaps[i].or(mask);
+                continue;
+            }
+            long[] partial = candidates.clone();
+            priceBitmaps[i].and(partial);
+            BitSet bits = BitSet.valueOf(partial);
+            for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+                BigDecimal price = documents.get(ordinal).getPrice();
+                if ((minPrice == null || price.compareTo(minPrice) >= 0)
+                        && (maxPrice == null || price.compareTo(maxPrice) <= 0)) {
+                    mask[ordinal >>> 6] |= 1L << ordinal;
+                }
+            }
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] &= mask[i];
+        }
+    }
+
+    private BitSet match(String keyword) {
+        BitSet result = (BitSet) live.clone();
+        if (keyword == null || keyword.isBlank()) {
+            return result;
+        }
+
+        List<String> terms = ProductTokenizer.queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return new BitSet();
+        }
+        for (String term : terms) {
+            result.and(lookup(term));
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private BitSet lookup(String term) {
+        if (!ProductTokenizer.isWordTerm(term)) {
+            BitSet bits = postings.get(term);
+            return bits != null ? bits : new BitSet();
+        }
+
+        // 英文/数字词项在单词后缀上做前缀匹配，即单词内的子串匹配，如 "phon" 命中 "iphone"
+        BitSet union = new BitSet();
+        for (BitSet bits : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+            union.or(bits);
+        }
+        return union;
+    }
+
+    /**
+     * 持有写锁执行增量更新；全量构建期间暂存，待构建完成后重放
+     */
+    private void update(Runnable change) {
+        withWriteLock(() -> {
+            if (deferred != null) {
+                deferred.add(change);
+            } else {
+                change.run();
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyInternal(IndexedProduct document) {
+        removeInternal(document.getId());
+        if (!document.isOnSale()) {
+            return;
+        }
+
+        int ordinal = freeOrdinals.isEmpty() ? documents.size() : freeOrdinals.pop();
+        if (ordinal == documents.size()) {
+            documents.add(document);
+        } else {
+            documents.set(ordinal, document);
+        }
+        ordinals.put(document.getId(), ordinal);
+        live.set(ordinal);
+        for (String term : document.getTerms()) {
+            postings.computeIfAbsent(term, key -> new BitSet()).set(ordinal);
+        }
+        addFacets(document, ordinal);
+    }
+
+    private void removeInternal(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+
+        IndexedProduct old = documents.get(ordinal);
+        for (String term : old.getTerms()) {
+            BitSet bits = postings.get(term);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        removeFacets(old, ordinal);
+        documents.set(ordinal, null);
+        live.clear(ordinal);
+        freeOrdinals.push(ordinal);
+    }
+
+    private void addFacets(IndexedProduct document, int ordinal) {
+        if (document.getCategoryId() != null) {
+            categoryBitmaps.computeIfAbsent(document.getCategoryId(), key -> new CompactBitmap()).add(ordinal);
+        }
+        if (document.isHot()) {
+            hotBitmap.add(ordinal);
+        }
+        if (document.isNewArrival()) {
+            newBitmap.add(ordinal);
+        }
+        if (document.isRecommend()) {
+            recommendBitmap.add(ordinal);
+        }
+        priceBitmaps[priceBucket(document.getPrice())].add(ordinal);
+    }
+
+    private void removeFacets(IndexedProduct document, int ordinal) {
+        CompactBitmap category = document.getCategoryId() != null
+                ? categoryBitmaps.get(document.getCategoryId()) : null;
+        if (category != null) {
+            category.remove(ordinal);
+            if (category.isEmpty()) {
+                categoryBitmaps.remove(document.getCategoryId());
+            }
+        }
+        hotBitmap.remove(ordinal);
+        newBitmap.remove(ordinal);
+        recommendBitmap.remove(ordinal);
+        priceBitmaps[priceBucket(document.getPrice())].remove(ordinal);
+    }
+
+    /**
+     * 价格所在区间：不大于该价格的分界点个数
+     */
+    private int priceBucket(BigDecimal price) {
+        int low = 0;
+        int high = priceBoundaries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (priceBoundaries[mid].compareTo(price) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 与数据库查询的 ORDER BY 一致（见 {@link com.mall.repository.ProductSearchPlanner}），同值时按 id 排序
+     */
+    private static Comparator<IndexedProduct> comparator(String sortBy) {
+        if ("price_asc".equals(sortBy)) {
+            return Comparator.comparing(IndexedProduct::getPrice).thenComparing(IndexedProduct::getId);
+        } else if ("price_desc".equals(sortBy)) {
+            return Comparator.comparing(IndexedProduct::getPrice)
+                    .thenComparing(IndexedProduct::getId).reversed();
+        } else if ("sales".equals(sortBy)) {
+            return Comparator.comparingInt(IndexedProduct::getSales)
+                    .thenComparing(IndexedProduct::getId).reversed();
+        }
+        return Comparator.comparingInt(IndexedProduct::getSortOrder)
+                .thenComparing(IndexedProduct::getId).reversed();
+    }
+}
@@ -0,0 +1,106 @@
+package com.mall.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 商品分词器
+ * 英文和数字按单词切分并转小写，索引时另外输出单词的全部后缀，配合前缀查找实现子串匹配
+ * （与原 LIKE '%关键词%' 一致，"phone" 能命中 "iPhone"）；中日韩文字切分为单字和二元组（bigram）
+ */
+public final class ProductTokenizer {
+
+    private ProductTokenizer() {
+    }
+
+    /**
+     * 索引分词：英文数字单词输出全部后缀；中日韩文字同时输出单字和二元组，保证单字和多字查询都能命中
+     */
+    public static Set<String> indexTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        scan(text, terms, true);
+        return terms;
+    }
+
+    /**
+     * 查询分词：中日韩连续文字长度大于1时只输出二元组，所有词项需同时命中
+     */
+    public static List<String> queryTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        scan(text, terms, false);
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 判断词项是否为英文/数字单词（支持前缀匹配）
+     */
+    public static boolean isWordTerm(String term) {
+        return !term.isEmpty() && !isCjk(term.codePointAt(0));
+    }
+
+    private static void scan(String text, Set<String> terms, boolean forIndex) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        StringBuilder word = new StringBuilder();
+        List<String> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (isCjk(cp)) {
+                flushWord(word, terms, forIndex);
+                cjkRun.add(new String(Character.toChars(cp)));
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushCjk(cjkRun, terms, forIndex);
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else {
+                flushWord(word, terms, forIndex);
+                flushCjk(cjkRun, terms, forIndex);
+            }
+        }
+        flushWord(word, terms, forIndex);
+        flushCjk(cjkRun, terms, forIndex);
+    }
+
+    private static void flushWord(StringBuilder word, Set<String> terms, boolean forIndex) {
+        if (word.length() == 0) {
+            return;
+        }
+        String text = word.toString();
+        terms.add(text);
+        if (forIndex) {
+            for (int i = 1; i < text.length(); i++) {
+                if (!Character.isLowSurrogate(text.charAt(i))) {
+                    terms.add(text.substring(i));
+                }
+            }
+        }
+        word.setLength(0);
+    }
+
+    private static void flushCjk(List<String> run, Set<String> terms, boolean forIndex) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (forIndex || run.size() == 1) {
+            terms.addAll(run);
+        }
+        for (int i = 0; i + 1 < run.size(); i++) {
+            terms.add(run.get(i) + run.get(i + 1));
+        }
+        run.clear();
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
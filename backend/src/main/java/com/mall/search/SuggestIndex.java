@@ -0,0 +1,134 @@
+package com.mall.search;
+
+import com.mall.dto.SearchSuggestion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 搜索框输入建议
+ * 建议来自在售商品名、商品关键词和启用分类（分类关键词作为分类的别名），按销量排名，支持拼音首字母匹配。
+ * 快照在后台线程整体重建后原子替换，查询只读当前快照；重建请求合并，同一时刻最多一个排队
+ */
+@Component
+public class SuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestIndex.class);
+
+    private static final String PRODUCTS_SQL = "SELECT id, name, keywords, sales, category_id FROM products " +
+            "WHERE status = 'ON_SALE' AND (deleted IS NULL OR deleted = FALSE)";
+    private static final String CATEGORIES_SQL = "SELECT id, name, keywords FROM categories " +
+            "WHERE status = 'ACTIVE' AND (deleted IS NULL OR deleted = FALSE)";
+
+    private static final Pattern KEYWORD_SEPARATOR = Pattern.compile("[,，、;；|/\\s]+");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            runnable -> {
+                Thread thread = new Thread(runnable, "suggest-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private volatile SuggestSnapshot snapshot;
+
+    /**
+     * 应用启动后构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    /**
+     * 定时重建，使排名跟上销量变化
+     */
+    @Scheduled(initialDelayString = "${mall.search.suggest-refresh-interval:600000}",
+            fixedDelayString = "${mall.search.suggest-refresh-interval:600000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    /**
+     * 请求后台重建；已有重建在排队时忽略
+     */
+    public void requestRebuild() {
+        executor.execute(this::rebuild);
+    }
+
+    /**
+     * 前缀匹配的输入建议，按销量降序；未构建完成时返回空列表
+     */
+    public List<SearchSuggestion> suggest(String prefix, int limit) {
+        SuggestSnapshot current = snapshot;
+        if (current == null) {
+            return List.of();
+        }
+        return current.suggest(prefix, Math.min(limit, SuggestSnapshot.MAX_RESULTS));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            SuggestSnapshot.Builder builder = SuggestSnapshot.builder();
+            Map<Long, Long> categorySales = new HashMap<>();
+            jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+                long sales = rs.getLong("sales");
+                builder.add("product", rs.getLong("id"), rs.getString("name"), sales, List.of());
+                for (String keyword : keywords(rs.getString("keywords"))) {
+                    builder.add("keyword", null, keyword, sales, List.of());
+                }
+                long categoryId = rs.getLong("category_id");
+                if (!rs.wasNull()) {
+                    categorySales.merge(categoryId, sales, Long::sum);
+                }
+            });
+            jdbcTemplate.query(CATEGORIES_SQL, rs -> {
+                long id = rs.getLong("id");
+                builder.add("category", id, rs.getString("name"), categorySales.getOrDefault(id, 0L),
+                        keywords(rs.getString("keywords")));
+            });
+
+            SuggestSnapshot next = builder.build();
+            snapshot = next;
+            log.info("Suggest index rebuilt: {} suggestions, {} keys in {} ms",
+                    next.size(), next.keyCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Suggest index rebuild failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private static List<String> keywords(String keywords) {
+        if (keywords == null || keywords.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(KEYWORD_SEPARATOR.split(keywords.trim()))
+                .filter(keyword -> !keyword.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,276 @@
+package com.mall.search;
+
+import com.mall.dto.SearchSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 输入建议不可变快照
+ * 建议按分数（销量）降序编号，编号越小排名越前；所有匹配键（规范化文本、从各单词开始的后缀、拼音首字母）
+ * 排成有序数组，前缀查询二分定位区间后取区间内最小的若干编号。
+ * 区间过大的前缀在构建时预先算好前几名，查询最多扫描 {@link #SCAN_LIMIT} 行
+ */
+final class SuggestSnapshot {
+
+    static final int MAX_RESULTS = 10;
+    private static final int SCAN_LIMIT = 256;
+
+    private final String[] types;
+    private final String[] texts;
+    private final Long[] ids;
+
+    // 匹配键（升序）及对应的建议编号
+    private final String[] keys;
+    private final int[] targets;
+    private final Map<String, int[]> topByPrefix;
+
+    private SuggestSnapshot(String[] types, String[] texts, Long[] ids, String[] keys, int[] targets,
+                            Map<String, int[]> topByPrefix) {
+        this.types = types;
+        this.texts = texts;
+        this.ids = ids;
+        this.keys = keys;
+        this.targets = targets;
+        this.topByPrefix = topByPrefix;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    int size() {
+        return texts.length;
+    }
+
+    int keyCount() {
+        return keys.length;
+    }
+
+    /**
+     * 前缀匹配，按分数降序返回至多 limit 条
+     */
+    List<SearchSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        if (from == to) {
+            return List.of();
+        }
+
+        int[] best = to - from > SCAN_LIMIT ? topByPrefix.get(normalized) : null;
+        if (best == null) {
+            best = best(targets, from, to);
+        }
+        List<SearchSuggestion> result = new ArrayList<>(Math.min(limit, best.length));
+        for (int i = 0; i < best.length && i < limit; i++) {
+            int target = best[i];
+            result.add(new SearchSuggestion(types[target], texts[target], ids[target]));
+        }
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 转小写，字母数字（含汉字）以外的字符合并为单个空格
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || Character.isSurrogate(c)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                separator = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 区间内最小的 MAX_RESULTS 个不同编号（升序）
+     */
+    private static int[] best(int[] targets, int from, int to) {
+        int[] best = new int[MAX_RESULTS];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            int target = targets[i];
+            if (size == MAX_RESULTS && target >= best[size - 1]) {
+                continue;
+            }
+            int position = Arrays.binarySearch(best, 0, size, target);
+            if (position >= 0) {
+                continue;
+            }
+            position = -position - 1;
+            if (size < MAX_RESULTS) {
+                size++;
+            }
+            System.arraycopy(best, position, best, position + 1, size - 1 - position);
+            best[position] = target;
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    static final class Builder {
+
+        private final Map<String, Candidate> candidates = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 登记一条建议；同类型同ID（无ID时同文本）的建议合并，分数累加，别名作为额外的匹配键
+         */
+        Builder add(String type, Long id, String text, long score, List<String> aliases) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            String key = type + ':' + (id != null ? id.toString() : normalized);
+            Candidate candidate = candidates.computeIfAbsent(key, k -> new Candidate(type, id, text.trim()));
+            candidate.score += score;
+            candidate.aliases.addAll(aliases);
+            return this;
+        }
+
+        SuggestSnapshot build() {
+            List<Candidate> ranked = new ArrayList<>(candidates.values());
+            ranked.sort(Comparator.comparingLong((Candidate c) -> c.score).reversed()
+                    .thenComparing(c -> c.text));
+
+            int count = ranked.size();
+            String[] types = new String[count];
+            String[] texts = new String[count];
+            Long[] ids = new Long[count];
+            List<Row> rows = new ArrayList<>(count * 3);
+            for (int i = 0; i < count; i++) {
+                Candidate candidate = ranked.get(i);
+                types[i] = candidate.type;
+                texts[i] = candidate.text;
+                ids[i] = candidate.id;
+
+                Set<String> matchKeys = new LinkedHashSet<>();
+                addKeys(candidate.text, matchKeys);
+                candidate.aliases.forEach(alias -> addKeys(alias, matchKeys));
+                for (String key : matchKeys) {
+                    rows.add(new Row(key, i));
+                }
+            }
+            rows.sort(Comparator.comparing((Row row) -> row.key).thenComparingInt(row -> row.target));
+
+            String[] keys = new String[rows.size()];
+            int[] targets = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                keys[i] = rows.get(i).key;
+                targets[i] = rows.get(i).target;
+            }
+            Map<String, int[]> topByPrefix = new HashMap<>();
+            precompute(keys, targets, 0, keys.length, 0, topByPrefix);
+            return new SuggestSnapshot(types, texts, ids, keys, targets, topByPrefix);
+        }
+
+        /**
+         * 匹配键：规范化文本、从第二个单词起的各个后缀、含汉字时的拼音首字母
+         */
+        private static void addKeys(String text, Set<String> keys) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            keys.add(normalized);
+            for (int i = 1; i < normalized.length(); i++) {
+                if (normalized.charAt(i - 1) == ' ') {
+                    keys.add(normalized.substring(i));
+                }
+            }
+            if (PinyinInitials.containsHan(text)) {
+                String initials = PinyinInitials.of(text);
+                if (!initials.isEmpty()) {
+                    keys.add(initials);
+                }
+            }
+        }
+
+        /**
+         * 对行数超过 SCAN_LIMIT 的前缀预先计算前几名，逐字符向下细分
+         */
+        private static void precompute(String[] keys, int[] targets, int from, int to, int depth,
+                                       Map<String, int[]> topByPrefix) {
+            if (to - from <= SCAN_LIMIT) {
+                return;
+            }
+            if (depth > 0) {
+                topByPrefix.put(keys[from].substring(0, depth), best(targets, from, to));
+            }
+            // 与前缀等长的键排在区间最前面
+            int i = from;
+            while (i < to && keys[i].length() == depth) {
+                i++;
+            }
+            while (i < to) {
+                char c = keys[i].charAt(depth);
+                int j = i + 1;
+                while (j < to && keys[j].charAt(depth) == c) {
+                    j++;
+                }
+                precompute(keys, targets, i, j, depth + 1, topByPrefix);
+                i = j;
+            }
+        }
+    }
+
+    private static final class Candidate {
+        private final String type;
+        private final Long id;
+        private final String text;
+        private final Set<String> aliases = new LinkedHashSet<>();
+        private long score;
+
+        private Candidate(String type, Long id, String text) {
+            this.type = type;
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private static final class Row {
+        private final String key;
+        private final int target;
+
+        private Row(String key, int target) {
+            this.key = key;
+            this.target = target;
+        }
+    }
+}
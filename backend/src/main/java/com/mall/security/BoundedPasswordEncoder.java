@@ -0,0 +1,150 @@
+package com.mall.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 有界 BCrypt 密码编码器
+ * 哈希计算在独立的有界线程池中执行，线程和队列占满或等待超时时拒绝，避免登录洪峰占满 Tomcat 线程。
+ * 工作因子由配置固定（所有节点一致、重启不变），未配置时才按目标耗时校准；
+ * 存量密码的工作因子低于当前值时由登录流程透明重新哈希，高于当前值的不降级
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final ThreadPoolExecutor executor;
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int strength;
+
+    private final long timeoutNanos;
+
+    /**
+     * @param strength 固定的工作因子，不大于 0 时在 [minStrength, maxStrength] 内按目标耗时校准
+     * @param timeout  等待哈希结果（含排队）的最长时间
+     */
+    public BoundedPasswordEncoder(int strength, Duration targetLatency, int minStrength, int maxStrength,
+                                  int threads, int queueCapacity, Duration timeout) {
+        if (strength > 0) {
+            this.strength = strength;
+        } else {
+            this.strength = calibrate(targetLatency, minStrength, maxStrength);
+            log.warn("BCrypt strength is not pinned (mall.password.strength), calibrated value {} may differ " +
+                    "between nodes and restarts", this.strength);
+        }
+        this.delegate = new BCryptPasswordEncoder(this.strength);
+        this.timeoutNanos = timeout.toNanos();
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password encoder uses BCrypt strength {} on {} threads, queue capacity {}",
+                this.strength, poolSize, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 存储的工作因子低于当前值时需要重新哈希
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingRejectedException();
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 排队中的任务直接取消；已开始的哈希无法中断，但请求线程不再等待
+            future.cancel(true);
+            throw new PasswordHashingRejectedException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码哈希被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 选取耗时不超过目标的最大工作因子：测量最小因子的耗时，因子每加一耗时翻倍
+     */
+    private static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long target = targetLatency.toNanos();
+        int strength = minStrength;
+        long estimate = best;
+        while (strength < maxStrength && estimate * 2 <= target) {
+            strength++;
+            estimate *= 2;
+        }
+        log.info("BCrypt calibrated: strength {} takes ~{} ms (target {} ms)",
+                strength, estimate / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+}
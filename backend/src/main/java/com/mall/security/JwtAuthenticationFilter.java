@@ -1,6 +1,7 @@
 package com.mall.security;
 
 import com.mall.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,17 +29,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         String jwt = getJwtFromRequest(request);
 
-        if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-            Long userId = tokenProvider.getUserIdFromToken(jwt);
+        UserDetails userDetails = StringUtils.hasText(jwt) ? resolveUser(jwt) : null;
 
-            UserDetails userDetails = userService.loadUserById(userId);
-            
+        if (userDetails != null) {
             UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -49,6 +51,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 优先从缓存获取用户主体；未命中时只做一次签名校验并加载用户
+     */
+    private UserDetails resolveUser(String jwt) {
+        UserPrincipal cached = tokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = tokenProvider.parseValidClaims(jwt);
+        if (claims == null) {
+            return null;
+        }
+
+        UserPrincipal principal = (UserPrincipal) userService.loadUserById(Long.parseLong(claims.getSubject()));
+        tokenCache.put(jwt, principal, claims.getExpiration());
+        return principal;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -2,14 +2,19 @@ package com.mall.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Token提供者
@@ -28,8 +33,29 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Token 校验耗时，按结果区分
+    private Timer validTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        validTimer = Timer.builder("mall.jwt.verify").tag("result", "valid").register(meterRegistry);
+        invalidTimer = Timer.builder("mall.jwt.verify").tag("result", "invalid").register(meterRegistry);
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     /**
@@ -66,11 +92,7 @@ public class JwtTokenProvider {
      * 从Token中获取用户ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
         return Long.parseLong(claims.getSubject());
     }
@@ -79,15 +101,22 @@ public class JwtTokenProvider {
      * 验证Token
      */
     public boolean validateToken(String token) {
+        return parseValidClaims(token) != null;
+    }
+
+    /**
+     * 验证Token并返回其声明，一次签名校验同时得到用户ID和过期时间；无效时返回 null
+     */
+    public Claims parseValidClaims(String token) {
+        long start = System.nanoTime();
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
@@ -95,11 +124,7 @@ public class JwtTokenProvider {
      * 获取Token过期时间
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
         return claims.getExpiration();
     }
@@ -0,0 +1,80 @@
+package com.mall.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登录信息异步写入器
+ * 登录只记录每个用户最近一次的登录时间和IP，定时合并为批量更新，
+ * 同一用户在一个回写间隔内的多次登录只写一次，应用关闭时会做最后一次回写
+ */
+@Component
+public class LoginEventWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginEventWriter.class);
+
+    private static final String LOGIN_INFO_SQL =
+            "UPDATE users SET last_login_time = ?, last_login_ip = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LoginEvent> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次登录（覆盖该用户尚未回写的登录）
+     */
+    public void record(Long userId, String ip) {
+        pending.put(userId, new LoginEvent(LocalDateTime.now(), ip));
+    }
+
+    /**
+     * 批量回写登录信息
+     */
+    @Scheduled(fixedDelayString = "${mall.login.flush-interval:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LoginEvent> events = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            LoginEvent event = pending.remove(userId);
+            if (event != null) {
+                events.put(userId, event);
+            }
+        }
+
+        List<Object[]> args = new ArrayList<>(events.size());
+        events.forEach((userId, event) ->
+                args.add(new Object[]{Timestamp.valueOf(event.time()), event.ip(), userId}));
+        try {
+            jdbcTemplate.batchUpdate(LOGIN_INFO_SQL, args);
+        } catch (RuntimeException e) {
+            // 回写失败时放回队列，期间已有更新的登录则以新的为准
+            events.forEach(pending::putIfAbsent);
+            log.error("Login info write-back failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record LoginEvent(LocalDateTime time, String ip) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.mall.security;
+
+/**
+ * 密码哈希线程池已满，请求被拒绝
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("系统繁忙，请稍后重试");
+    }
+}
@@ -18,6 +18,9 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
 
+    // 登录认证时加载的用户实体，供登录流程复用，不随Token缓存
+    private transient User user;
+
     public UserPrincipal(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
@@ -38,10 +41,23 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * 创建主体并携带用户实体（仅用于登录认证）
+     */
+    public static UserPrincipal createWithUser(User user) {
+        UserPrincipal principal = create(user);
+        principal.user = user;
+        return principal;
+    }
+
     public Long getId() {
         return id;
     }
 
+    public User getUser() {
+        return user;
+    }
+
     @Override
     public String getUsername() {
         return username;
@@ -0,0 +1,161 @@
+package com.mall.security;
+
+import com.mall.cache.ChangeBroadcaster;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已验证Token缓存
+ * 以Token的SHA-256摘要为键缓存用户主体，条目在Token过期或达到最大存活时间后失效，
+ * 修改密码、重置密码或用户信息变更时按用户失效（通过变更广播通知所有实例），按用户维护摘要索引，失效时不扫描全部条目
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.cache.ttl:600000}")
+    private long ttl;
+
+    @Autowired
+    private ChangeBroadcaster changeBroadcaster;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // 用户ID -> 该用户已缓存Token的摘要
+    private final Map<Long, Set<String>> userKeys = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        changeBroadcaster.subscribeIds(ChangeBroadcaster.USERS, this::evictUsers);
+    }
+
+    /**
+     * 获取Token对应的用户主体，未命中或已过期返回 null
+     */
+    public UserPrincipal get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.principal;
+    }
+
+    /**
+     * 缓存已验证的Token
+     */
+    public void put(String token, UserPrincipal principal, Date tokenExpiration) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl;
+        if (tokenExpiration != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiration.getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        String key = digest(token);
+        // 先写条目再登记索引：与失效并发时条目最多多留到下一次失效，而不会脱离索引
+        entries.put(key, new Entry(principal, expiresAt));
+        userKeys.compute(principal.getId(), (id, keys) -> {
+            Set<String> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            result.add(key);
+            return result;
+        });
+    }
+
+    /**
+     * 失效某个用户的全部缓存Token，并通知其他实例
+     */
+    public void invalidateUser(Long userId) {
+        evictUsers(List.of(userId));
+        changeBroadcaster.publishIds(ChangeBroadcaster.USERS, List.of(userId));
+    }
+
+    public void clear() {
+        entries.clear();
+        userKeys.clear();
+    }
+
+    /**
+     * 移除这些用户在本实例缓存的Token
+     */
+    private void evictUsers(List<Long> userIds) {
+        for (Long userId : userIds) {
+            Set<String> keys = userKeys.remove(userId);
+            if (keys != null) {
+                keys.forEach(entries::remove);
+            }
+        }
+    }
+
+    /**
+     * 先清理过期条目，仍然超限时淘汰任意条目直到低于上限的 90%
+     */
+    private void evict(long now) {
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt <= now) {
+                remove(key, entry);
+            }
+        });
+        int target = maxSize - maxSize / 10;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            Map.Entry<String, Entry> next = iterator.next();
+            remove(next.getKey(), next.getValue());
+        }
+    }
+
+    /**
+     * 移除条目并从用户索引中摘除，用户已无缓存Token时删除其索引
+     */
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            userKeys.computeIfPresent(entry.principal.getId(), (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final UserPrincipal principal;
+        private final long expiresAt;
+
+        private Entry(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.mall.service;
+
+import com.mall.cache.RemoteCache;
+import com.mall.cart.CartEntry;
+import com.mall.cart.CartWriteBehind;
+import com.mall.dto.CartItemView;
+import com.mall.dto.ProductCard;
+import com.mall.dto.ProductDetail;
+import com.mall.entity.Product;
+import com.mall.entity.ProductSku;
+import com.mall.id.IdGenerator;
+import com.mall.repository.ProductRepository;
+import com.mall.repository.ProductSkuRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 购物车服务类
+ * 每个用户的购物车是缓存中的一个哈希（字段为购物车项ID，值为定长二进制），是购物车的唯一数据源，
+ * 变更异步合并写回 cart_items；同一用户的读改写和从数据库重建都持有该用户的缓存锁，在整个集群内串行；
+ * 渲染时一次批量加载商品卡片和SKU
+ */
+@Service
+public class CartService {
+
+    private static final String KEY_PREFIX = "mall:cart:";
+    private static final String LOCK_PREFIX = "mall:cart:lock:";
+
+    // 哈希已完整加载的标记字段
+    private static final String LOADED_FIELD = "~";
+    private static final byte[] LOADED_VALUE = new byte[0];
+
+    private static final int MAX_ITEMS = 200;
+    private static final int MAX_QUANTITY = 999;
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long LOCK_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Autowired
+    private CartWriteBehind cartWriteBehind;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSkuRepository productSkuRepository;
+
+    @Value("${mall.cart.ttl:7d}")
+    private Duration ttl;
+
+    @Value("${mall.cart.lock-ttl:5s}")
+    private Duration lockTtl;
+
+    @Value("${mall.cart.lock-wait:2s}")
+    private Duration lockWait;
+
+    private final byte[] instanceId = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    // 本节点内先按分段串行，减少对同一缓存锁的争抢
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public CartService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 获取购物车（按加入时间倒序，已删除的商品不展示）
+     */
+    public List<CartItemView> getCartItems(Long userId) {
+        List<CartEntry> entries = entries(userId);
+        entries.sort(Comparator.comparingLong(CartEntry::getCreateTime).reversed()
+                .thenComparing(CartEntry::getId, Comparator.reverseOrder()));
+
+        List<Long> productIds = entries.stream().map(CartEntry::getProductId).distinct().collect(Collectors.toList());
+        List<Long> skuIds = entries.stream().map(CartEntry::getSkuId).filter(Objects::nonNull).distinct()
+                .collect(Collectors.toList());
+        Map<Long, ProductCard> cards = productIds.isEmpty() ? Map.of() : productRepository.findCardsByIdIn(productIds)
+                .stream().collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+        Map<Long, ProductSku> skus = skuIds.isEmpty() ? Map.of() : productSkuRepository.findAllById(skuIds)
+                .stream().collect(Collectors.toMap(ProductSku::getId, Function.identity()));
+
+        List<CartItemView> items = new ArrayList<>(entries.size());
+        for (CartEntry entry : entries) {
+            ProductCard card = cards.get(entry.getProductId());
+            if (card == null) {
+                continue;
+            }
+            CartItemView item = new CartItemView();
+            item.setId(entry.getId());
+            item.setProduct(card);
+            if (entry.getSkuId() != null && skus.containsKey(entry.getSkuId())) {
+                item.setProductSku(ProductDetail.SkuInfo.from(skus.get(entry.getSkuId())));
+            }
+            item.setQuantity(entry.getQuantity());
+            item.setChecked(entry.isChecked());
+            item.setCreateTime(toDateTime(entry.getCreateTime()));
+            item.setUpdateTime(toDateTime(entry.getUpdateTime()));
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * 加入购物车，已有相同商品/SKU时累加数量
+     */
+    public void addToCart(Long userId, Long productId, Long skuId, int quantity) {
+        validateProduct(productId, skuId);
+        withLock(userId, () -> {
+            List<CartEntry> entries = loadedEntries(userId);
+            CartEntry existing = entries.stream()
+                    .filter(entry -> entry.isSameItem(productId, skuId))
+                    .findFirst().orElse(null);
+            CartEntry entry;
+            if (existing != null) {
+                entry = existing.withQuantity(Math.min(existing.getQuantity() + quantity, MAX_QUANTITY));
+            } else {
+                if (entries.size() >= MAX_ITEMS) {
+                    throw new RuntimeException("购物车商品种类已达上限");
+                }
+                long now = System.currentTimeMillis();
+                entry = new CartEntry(idGenerator.nextId("cart_items"), productId, skuId,
+                        Math.min(quantity, MAX_QUANTITY), true, now, now);
+            }
+            put(userId, List.of(entry));
+        });
+    }
+
+    /**
+     * 修改购物车项数量
+     */
+    public void updateQuantity(Long userId, Long itemId, int quantity) {
+        if (quantity < 1 || quantity > MAX_QUANTITY) {
+            throw new IllegalArgumentException("数量必须在1到" + MAX_QUANTITY + "之间");
+        }
+        update(userId, itemId, entry -> entry.withQuantity(quantity));
+    }
+
+    /**
+     * 修改购物车项选中状态
+     */
+    public void updateChecked(Long userId, Long itemId, boolean checked) {
+        update(userId, itemId, entry -> entry.withChecked(checked));
+    }
+
+    /**
+     * 全选或取消全选
+     */
+    public void updateAllChecked(Long userId, boolean checked) {
+        withLock(userId, () -> {
+            List<CartEntry> changed = loadedEntries(userId).stream()
+                    .filter(entry -> entry.isChecked() != checked)
+                    .map(entry -> entry.withChecked(checked))
+                    .collect(Collectors.toList());
+            put(userId, changed);
+        });
+    }
+
+    /**
+     * 删除购物车项
+     */
+    public void removeItems(Long userId, Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        withLock(userId, () -> {
+            Map<Long, CartEntry> current = loadedEntries(userId).stream()
+                    .collect(Collectors.toMap(CartEntry::getId, Function.identity()));
+            List<String> fields = new ArrayList<>();
+            for (Long itemId : itemIds) {
+                CartEntry entry = current.get(itemId);
+                if (entry != null) {
+                    fields.add(String.valueOf(itemId));
+                    cartWriteBehind.delete(userId, entry.touch());
+                }
+            }
+            if (!fields.isEmpty()) {
+                remoteCache.hashDelete(key(userId), fields.toArray(new String[0]));
+            }
+        });
+    }
+
+    /**
+     * 清空购物车
+     */
+    public void clearCart(Long userId) {
+        removeItems(userId, entries(userId).stream().map(CartEntry::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 购物车商品总件数
+     */
+    public int getCartCount(Long userId) {
+        return entries(userId).stream().mapToInt(CartEntry::getQuantity).sum();
+    }
+
+    private void update(Long userId, Long itemId, Function<CartEntry, CartEntry> change) {
+        withLock(userId, () -> {
+            CartEntry entry = loadedEntries(userId).stream()
+                    .filter(candidate -> candidate.getId() == itemId)
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("购物车项不存在"));
+            put(userId, List.of(change.apply(entry)));
+        });
+    }
+
+    /**
+     * 读取用户购物车；缓存中没有完整购物车时加锁重建
+     */
+    private List<CartEntry> entries(Long userId) {
+        List<CartEntry> entries = cachedEntries(userId);
+        if (entries != null) {
+            return entries;
+        }
+        return withLock(userId, () -> loadedEntries(userId));
+    }
+
+    /**
+     * 持有用户锁时读取购物车，缓存中没有完整购物车时从数据库和本节点未写回的变更重建。
+     * 其他节点的变更都已先写入缓存哈希，只有缓存本身丢失数据时才需要依赖数据库
+     */
+    private List<CartEntry> loadedEntries(Long userId) {
+        List<CartEntry> entries = cachedEntries(userId);
+        if (entries != null) {
+            return entries;
+        }
+        entries = cartWriteBehind.load(userId);
+        Map<String, byte[]> fields = new HashMap<>();
+        entries.forEach(entry -> fields.put(String.valueOf(entry.getId()), entry.encode()));
+        fields.put(LOADED_FIELD, LOADED_VALUE);
+        remoteCache.hashPutAll(key(userId), fields);
+        remoteCache.expire(key(userId), ttl);
+        return entries;
+    }
+
+    /**
+     * 缓存中的完整购物车，未加载时返回 null
+     */
+    private List<CartEntry> cachedEntries(Long userId) {
+        Map<String, byte[]> hash = remoteCache.hashGetAll(key(userId));
+        if (!hash.containsKey(LOADED_FIELD)) {
+            return null;
+        }
+
+        List<CartEntry> entries = new ArrayList<>(hash.size());
+        hash.forEach((field, value) -> {
+            if (!LOADED_FIELD.equals(field)) {
+                CartEntry entry = CartEntry.decode(value);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        });
+        return entries;
+    }
+
+    private void put(Long userId, List<CartEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<String, byte[]> fields = new HashMap<>();
+        for (CartEntry entry : entries) {
+            fields.put(String.valueOf(entry.getId()), entry.encode());
+            cartWriteBehind.upsert(userId, entry);
+        }
+        remoteCache.hashPutAll(key(userId), fields);
+        remoteCache.expire(key(userId), ttl);
+    }
+
+    private void validateProduct(Long productId, Long skuId) {
+        ProductCard card = productRepository.findCardsByIdIn(List.of(productId)).stream().findFirst()
+                .orElseThrow(() -> new RuntimeException("商品不存在"));
+        if (card.getStatus() != Product.ProductStatus.ON_SALE) {
+            throw new RuntimeException("商品已下架");
+        }
+        if (skuId != null) {
+            ProductSku sku = productSkuRepository.findById(skuId)
+                    .orElseThrow(() -> new RuntimeException("商品规格不存在"));
+            if (!productId.equals(sku.getProduct().getId()) || sku.getStatus() != ProductSku.SkuStatus.ACTIVE) {
+                throw new RuntimeException("商品规格不存在或已停用");
+            }
+        }
+    }
+
+    /**
+     * 持有用户的缓存锁执行，集群内同一用户的购物车变更和重建串行；等待超时时拒绝本次操作
+     */
+    private void withLock(Long userId, Runnable action) {
+        withLock(userId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T withLock(Long userId, Supplier<T> action) {
+        synchronized (locks[(Long.hashCode(userId) & Integer.MAX_VALUE) % LOCK_STRIPES]) {
+            String lockKey = LOCK_PREFIX + userId;
+            long deadline = System.nanoTime() + lockWait.toNanos();
+            while (!remoteCache.setIfAbsent(lockKey, instanceId, lockTtl)) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new RuntimeException("购物车正在更新，请稍后重试");
+                }
+                LockSupport.parkNanos(LOCK_RETRY_NANOS);
+            }
+            long acquired = System.nanoTime();
+            try {
+                return action.get();
+            } finally {
+                // 超过锁的有效期后锁可能已被其他节点取得，不再删除
+                if (System.nanoTime() - acquired < lockTtl.toNanos()) {
+                    remoteCache.delete(lockKey);
+                }
+            }
+        }
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
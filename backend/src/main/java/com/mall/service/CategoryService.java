@@ -1,9 +1,16 @@
 package com.mall.service;
 
+import com.mall.cache.CategoryTree;
+import com.mall.cache.ChangeBroadcaster;
+import com.mall.cache.CategoryTreeSnapshot;
 import com.mall.entity.Category;
 import com.mall.repository.CategoryRepository;
+import com.mall.search.SuggestIndex;
+import com.mall.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,10 +24,28 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private ChangeBroadcaster changeBroadcaster;
+
+    @PostConstruct
+    public void init() {
+        changeBroadcaster.subscribe(ChangeBroadcaster.CATEGORIES, payload -> refreshLocal());
+    }
+
     /**
      * 获取所有分类
      */
     public List<Category> getAllCategories() {
+        CategoryTreeSnapshot snapshot = categoryTree.snapshot();
+        if (snapshot != null) {
+            return snapshot.getAll();
+        }
         return categoryRepository.findAll();
     }
 
@@ -28,19 +53,27 @@ public class CategoryService {
      * 根据ID获取分类
      */
     public Optional<Category> getCategoryById(Long id) {
+        CategoryTreeSnapshot snapshot = categoryTree.snapshot();
+        if (snapshot != null) {
+            return Optional.ofNullable(snapshot.get(id));
+        }
         return categoryRepository.findById(id);
     }
 
     /**
      * 创建分类
      */
+    @Transactional
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        TransactionHooks.afterCommit(this::onCategoriesChanged);
+        return saved;
     }
 
     /**
      * 更新分类
      */
+    @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
         Optional<Category> optionalCategory = categoryRepository.findById(id);
         if (optionalCategory.isPresent()) {
@@ -55,7 +88,9 @@ public class CategoryService {
             category.setDescription(categoryDetails.getDescription());
             category.setIsShow(categoryDetails.getIsShow());
             category.setStatus(categoryDetails.getStatus());
-            return categoryRepository.save(category);
+            Category saved = categoryRepository.save(category);
+            TransactionHooks.afterCommit(this::onCategoriesChanged);
+            return saved;
         }
         return null;
     }
@@ -63,9 +98,11 @@ public class CategoryService {
     /**
      * 删除分类
      */
+    @Transactional
     public boolean deleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
+            TransactionHooks.afterCommit(this::onCategoriesChanged);
             return true;
         }
         return false;
@@ -75,6 +112,10 @@ public class CategoryService {
      * 根据父级ID获取子分类
      */
     public List<Category> getCategoriesByParentId(Long parentId) {
+        CategoryTreeSnapshot snapshot = categoryTree.snapshot();
+        if (snapshot != null) {
+            return parentId != null ? snapshot.getChildren(parentId) : snapshot.getTop();
+        }
         return categoryRepository.findByParentIdAndStatusOrderBySortOrderAsc(parentId, Category.CategoryStatus.ACTIVE);
     }
 
@@ -82,6 +123,23 @@ public class CategoryService {
      * 获取顶级分类
      */
     public List<Category> getTopCategories() {
+        CategoryTreeSnapshot snapshot = categoryTree.snapshot();
+        if (snapshot != null) {
+            return snapshot.getTop();
+        }
         return categoryRepository.findByParentIdIsNullAndStatusOrderBySortOrderAsc(Category.CategoryStatus.ACTIVE);
     }
-}
\ No newline at end of file
+
+    /**
+     * 分类变更提交后刷新分类树、重建输入建议并通知其他实例
+     */
+    private void onCategoriesChanged() {
+        refreshLocal();
+        changeBroadcaster.publish(ChangeBroadcaster.CATEGORIES, "");
+    }
+
+    private void refreshLocal() {
+        categoryTree.refresh();
+        suggestIndex.requestRebuild();
+    }
+}
@@ -0,0 +1,166 @@
+package com.mall.service;
+
+import com.mall.cache.ChangeBroadcaster;
+import com.mall.coupon.CouponClaimService;
+import com.mall.coupon.CouponEligibilityIndex;
+import com.mall.coupon.EligibilityLine;
+import com.mall.dto.ApplicableCoupon;
+import com.mall.dto.CartItemView;
+import com.mall.entity.Coupon;
+import com.mall.repository.CouponRepository;
+import com.mall.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 优惠券服务类
+ * 优惠券变更提交后直接更新本实例的资格索引和领取规则，并广播给其他实例重新加载
+ */
+@Service
+@Transactional
+public class CouponService {
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponEligibilityIndex couponEligibilityIndex;
+
+    @Autowired
+    private CouponClaimService couponClaimService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ChangeBroadcaster changeBroadcaster;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        changeBroadcaster.subscribeIds(ChangeBroadcaster.COUPONS, this::onRemoteChange);
+    }
+
+    /**
+     * 根据ID查找优惠券
+     */
+    public Optional<Coupon> findById(Long id) {
+        return couponRepository.findById(id);
+    }
+
+    /**
+     * 当前有效的优惠券
+     */
+    @Transactional(readOnly = true)
+    public List<Coupon> findActiveCoupons() {
+        List<Long> ids = couponEligibilityIndex.findActive(System.currentTimeMillis()).stream()
+                .map(coupon -> coupon.getId())
+                .collect(Collectors.toList());
+        return couponRepository.findAllById(ids);
+    }
+
+    /**
+     * 计算适用于这些商品行的优惠券
+     */
+    @Transactional(readOnly = true)
+    public List<ApplicableCoupon> findApplicable(List<EligibilityLine> lines) {
+        return couponEligibilityIndex.findApplicable(lines, System.currentTimeMillis()).stream()
+                .map(ApplicableCoupon::from)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 计算适用于用户购物车已选商品的优惠券
+     */
+    @Transactional(readOnly = true)
+    public List<ApplicableCoupon> findApplicableForCart(Long userId) {
+        List<EligibilityLine> lines = cartService.getCartItems(userId).stream()
+                .filter(item -> Boolean.TRUE.equals(item.getChecked()))
+                .map(CouponService::toLine)
+                .collect(Collectors.toList());
+        return lines.isEmpty() ? List.of() : findApplicable(lines);
+    }
+
+    /**
+     * 领取优惠券，返回用户优惠券ID（领取记录异步写入数据库）
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long claim(Long userId, Long couponId) {
+        return couponClaimService.claim(userId, couponId);
+    }
+
+    /**
+     * 保存优惠券，事务提交后同步资格索引和领取规则并通知其他实例
+     */
+    public Coupon save(Coupon coupon) {
+        Coupon saved = couponRepository.save(coupon);
+        TransactionHooks.afterCommit(() -> {
+            applyLocal(saved);
+            changeBroadcaster.publishIds(ChangeBroadcaster.COUPONS, List.of(saved.getId()));
+        });
+        return saved;
+    }
+
+    /**
+     * 删除优惠券，事务提交后停止领取并通知其他实例
+     */
+    public void deleteById(Long id) {
+        couponRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> {
+            removeLocal(id);
+            changeBroadcaster.publishIds(ChangeBroadcaster.COUPONS, List.of(id));
+        });
+    }
+
+    /**
+     * 其他实例提交的优惠券变更：重新加载后更新本实例的资格索引和领取规则，已不存在的按删除处理
+     */
+    private void onRemoteChange(List<Long> ids) {
+        Map<Long, Coupon> coupons = readOnly.execute(status -> couponRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Coupon::getId, Function.identity())));
+        for (Long id : ids) {
+            Coupon coupon = coupons.get(id);
+            if (coupon != null) {
+                applyLocal(coupon);
+            } else {
+                removeLocal(id);
+            }
+        }
+    }
+
+    private void applyLocal(Coupon coupon) {
+        couponEligibilityIndex.apply(coupon);
+        couponClaimService.update(coupon);
+    }
+
+    private void removeLocal(Long id) {
+        couponEligibilityIndex.remove(id);
+        couponClaimService.disable(id);
+    }
+
+    private static EligibilityLine toLine(CartItemView item) {
+        BigDecimal price = item.getProductSku() != null && item.getProductSku().getPrice() != null
+                ? item.getProductSku().getPrice()
+                : item.getProduct().getPrice();
+        return new EligibilityLine(item.getProduct().getId(), item.getProduct().getCategoryId(),
+                price.multiply(BigDecimal.valueOf(item.getQuantity())));
+    }
+}
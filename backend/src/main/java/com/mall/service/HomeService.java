@@ -0,0 +1,181 @@
+package com.mall.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mall.dto.HomeView;
+import com.mall.dto.ProductCard;
+import com.mall.entity.Category;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 首页聚合服务
+ * 分类和四个商品榜单在有界线程池上并行读取，所有栏目共用一个截止时间，
+ * 超时的栏目中断其工作线程，线程池占满时直接拒绝；超时、拒绝或失败的栏目返回空列表并标记降级。
+ * 完整结果在本地短暂缓存
+ */
+@Service
+public class HomeService {
+
+    private static final Logger log = LoggerFactory.getLogger(HomeService.class);
+
+    private static final int MAX_SECTION_SIZE = 50;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${mall.home.threads:0}")
+    private int threads;
+
+    @Value("${mall.home.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${mall.home.branch-timeout:300ms}")
+    private Duration branchTimeout;
+
+    @Value("${mall.home.cache-ttl:10s}")
+    private Duration cacheTtl;
+
+    @Value("${mall.home.cache-max-size:16}")
+    private int cacheMaxSize;
+
+    private ThreadPoolExecutor executor;
+
+    private Cache<Integer, HomeView> cache;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger sequence = new AtomicInteger();
+        // 队列占满时拒绝提交，对应栏目按降级处理，请求线程不会越过截止时间
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "home-fanout-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * 首页数据，每个商品栏目取 size 条
+     */
+    public HomeView getHome(int size) {
+        int sectionSize = Math.max(1, Math.min(size, MAX_SECTION_SIZE));
+        HomeView cached = cache.getIfPresent(sectionSize);
+        if (cached != null) {
+            return cached;
+        }
+
+        Pageable pageable = PageRequest.of(0, sectionSize);
+        long deadline = System.nanoTime() + branchTimeout.toNanos();
+        CompletableFuture<List<Category>> categories = submit(categoryService::getTopCategories, deadline);
+        CompletableFuture<List<ProductCard>> hot =
+                submit(() -> productService.findHotProducts(pageable).getContent(), deadline);
+        CompletableFuture<List<ProductCard>> fresh =
+                submit(() -> productService.findNewProducts(pageable).getContent(), deadline);
+        CompletableFuture<List<ProductCard>> recommend =
+                submit(() -> productService.findRecommendProducts(pageable).getContent(), deadline);
+        CompletableFuture<List<ProductCard>> bestSelling =
+                submit(() -> productService.findBySales(pageable).getContent(), deadline);
+
+        HomeView view = new HomeView();
+        collect("categories", categories, view, view::setCategories);
+        collect("hotProducts", hot, view, view::setHotProducts);
+        collect("newProducts", fresh, view, view::setNewProducts);
+        collect("recommendProducts", recommend, view, view::setRecommendProducts);
+        collect("bestSellingProducts", bestSelling, view, view::setBestSellingProducts);
+
+        if (!view.isPartial()) {
+            cache.put(sectionSize, view);
+        }
+        return view;
+    }
+
+    /**
+     * 提交到线程池，截止时间到达时结果以 {@link TimeoutException} 完成并中断仍在执行的任务；
+     * 线程池拒绝时结果以 {@link RejectedExecutionException} 完成
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task, long deadline) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        return result.orTimeout(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .whenComplete((value, error) -> {
+                    if (error instanceof TimeoutException) {
+                        running.cancel(true);
+                    }
+                });
+    }
+
+    /**
+     * 取栏目结果（截止时间由 {@link #submit} 保证），超时、拒绝或失败时保留空列表并记入降级栏目
+     */
+    private <T> void collect(String section, CompletableFuture<T> future, HomeView view, Consumer<T> setter) {
+        try {
+            setter.accept(future.get());
+        } catch (ExecutionException e) {
+            view.getDegraded().add(section);
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                log.warn("Home section {} timed out after {}", section, branchTimeout);
+            } else if (cause instanceof RejectedExecutionException) {
+                log.warn("Home section {} rejected, fan-out pool is saturated", section);
+            } else {
+                log.error("Home section {} failed: {}", section, cause.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            view.getDegraded().add(section);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.mall.service;
+
+import com.mall.dto.OrderCreateRequest;
+import com.mall.dto.OrderView;
+import com.mall.entity.Order;
+import com.mall.entity.OrderItem;
+import com.mall.entity.Product;
+import com.mall.entity.ProductSku;
+import com.mall.id.OrderNumberGenerator;
+import com.mall.inventory.InventoryService;
+import com.mall.inventory.StockKey;
+import com.mall.order.OrderTimeoutScheduler;
+import com.mall.repository.OrderItemRepository;
+import com.mall.repository.OrderRepository;
+import com.mall.repository.ProductRepository;
+import com.mall.repository.ProductSkuRepository;
+import com.mall.repository.UserRepository;
+import com.mall.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 订单服务类
+ */
+@Service
+@Transactional
+public class OrderService {
+
+    private static final String PAY_SQL = "UPDATE orders SET status = 'PAID', payment_method = ?, " +
+            "payment_time = ?, update_time = ? WHERE id = ? AND user_id = ? AND status = 'PENDING_PAYMENT'";
+    private static final String CANCEL_SQL = "UPDATE orders SET status = 'CANCELLED', close_time = ?, " +
+            "update_time = ? WHERE id = ? AND user_id = ? AND status = 'PENDING_PAYMENT'";
+    private static final String ITEMS_SQL =
+            "SELECT product_id, product_sku_id, quantity FROM order_items WHERE order_id = ?";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSkuRepository productSkuRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private OrderTimeoutScheduler orderTimeoutScheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 创建订单
+     * 一次 IN 查询加载全部商品和SKU，快照商品名称、图片和价格到订单项，订单和订单项批量插入；
+     * 最后在库存账本中原子预留全部行，任一行不足则整单回滚；预留在事务提交后确认、回滚后释放。
+     * 事务提交后登记支付截止时间
+     */
+    public OrderView createOrder(Long userId, OrderCreateRequest request) {
+        Map<StockKey, Integer> lines = mergeLines(request.getItems());
+
+        Map<Long, Product> products = productRepository.findAllById(
+                        lines.keySet().stream().map(StockKey::productId).distinct().collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Long> skuIds = lines.keySet().stream()
+                .map(StockKey::skuId).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, ProductSku> skus = skuIds.isEmpty() ? Map.of() : productSkuRepository.findAllById(skuIds)
+                .stream().collect(Collectors.toMap(ProductSku::getId, Function.identity()));
+
+        Order order = new Order();
+        order.setOrderNo(orderNumberGenerator.next());
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setReceiverName(request.getReceiverName());
+        order.setReceiverPhone(request.getReceiverPhone());
+        order.setReceiverAddress(request.getReceiverAddress());
+        order.setReceiverProvince(request.getReceiverProvince());
+        order.setReceiverCity(request.getReceiverCity());
+        order.setReceiverDistrict(request.getReceiverDistrict());
+        order.setReceiverZip(request.getReceiverZip());
+        order.setRemark(request.getRemark());
+
+        List<OrderItem> items = new ArrayList<>(lines.size());
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Map.Entry<StockKey, Integer> line : lines.entrySet()) {
+            OrderItem item = snapshot(line.getKey(), line.getValue(), products, skus);
+            item.setOrder(order);
+            items.add(item);
+            totalAmount = totalAmount.add(item.getTotalPrice());
+        }
+        order.setOrderItems(items);
+        order.setTotalAmount(totalAmount);
+        order.setActualAmount(totalAmount.subtract(order.getDiscountAmount()).add(order.getShippingFee()));
+
+        Order saved = orderRepository.save(order);
+        orderRepository.flush();
+        inventoryService.deductAll(lines);
+        TransactionHooks.afterCommit(() -> orderTimeoutScheduler.schedule(saved.getId(), System.currentTimeMillis()));
+        return OrderView.from(saved, items);
+    }
+
+    /**
+     * 支付待付款订单；以条件更新与超时关闭互斥，事务提交后计入各商品/SKU的销量并撤销支付截止时间
+     */
+    public void payOrder(Long userId, Long orderId, Order.PaymentMethod paymentMethod) {
+        if (paymentMethod == null) {
+            throw new IllegalArgumentException("支付方式不能为空");
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (jdbcTemplate.update(PAY_SQL, paymentMethod.name(), now, now, orderId, userId) == 0) {
+            throw new RuntimeException("订单不存在或不是待付款状态");
+        }
+        orderLines(orderId).forEach((key, quantity) ->
+                productService.increaseSales(key.productId(), key.skuId(), quantity));
+        TransactionHooks.afterCommit(() -> orderTimeoutScheduler.cancel(orderId));
+    }
+
+    /**
+     * 取消待付款订单，事务提交后归还库存并撤销支付截止时间
+     */
+    public void cancelOrder(Long userId, Long orderId) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (jdbcTemplate.update(CANCEL_SQL, now, now, orderId, userId) == 0) {
+            throw new RuntimeException("订单不存在或不是待付款状态");
+        }
+        inventoryService.restockAll(orderLines(orderId));
+        TransactionHooks.afterCommit(() -> orderTimeoutScheduler.cancel(orderId));
+    }
+
+    /**
+     * 用户订单列表（订单项一次批量加载）
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderView> findUserOrders(Long userId, Pageable pageable) {
+        Page<Order> orders = orderRepository.findByUserIdOrderByCreateTimeDesc(userId, pageable);
+        if (orders.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, orders.getTotalElements());
+        }
+        Map<Long, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderIdIn(
+                        orders.getContent().stream().map(Order::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+        return orders.map(order -> OrderView.from(order, itemsByOrder.getOrDefault(order.getId(), List.of())));
+    }
+
+    /**
+     * 用户的订单详情
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderView> findUserOrder(Long userId, Long orderId) {
+        return orderRepository.findByIdAndUserId(orderId, userId)
+                .map(order -> OrderView.from(order, orderItemRepository.findByOrderIdIn(List.of(order.getId()))));
+    }
+
+    /**
+     * 订单各商品/SKU的购买数量
+     */
+    private Map<StockKey, Integer> orderLines(Long orderId) {
+        Map<StockKey, Integer> lines = new HashMap<>();
+        jdbcTemplate.query(ITEMS_SQL, rs -> {
+            long skuId = rs.getLong("product_sku_id");
+            StockKey key = StockKey.of(rs.getLong("product_id"), rs.wasNull() ? null : skuId);
+            lines.merge(key, rs.getInt("quantity"), Integer::sum);
+        }, orderId);
+        return lines;
+    }
+
+    /**
+     * 合并同一商品/SKU的重复行
+     */
+    private static Map<StockKey, Integer> mergeLines(List<OrderCreateRequest.Line> requestLines) {
+        Map<StockKey, Integer> lines = new LinkedHashMap<>();
+        for (OrderCreateRequest.Line line : requestLines) {
+            lines.merge(StockKey.of(line.getProductId(), line.getSkuId()), line.getQuantity(), Integer::sum);
+        }
+        return lines;
+    }
+
+    private static OrderItem snapshot(StockKey key, int quantity, Map<Long, Product> products,
+                                      Map<Long, ProductSku> skus) {
+        Product product = products.get(key.productId());
+        if (product == null || Boolean.TRUE.equals(product.getDeleted())
+                || product.getStatus() != Product.ProductStatus.ON_SALE) {
+            throw new RuntimeException("商品不存在或已下架: " + key.productId());
+        }
+
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setProductName(product.getName());
+        item.setProductImage(product.getMainImage());
+        item.setProductPrice(product.getPrice());
+
+        if (key.skuId() != null) {
+            ProductSku sku = skus.get(key.skuId());
+            if (sku == null || sku.getStatus() != ProductSku.SkuStatus.ACTIVE
+                    || !product.getId().equals(sku.getProduct().getId())) {
+                throw new RuntimeException("商品规格不存在或已停用: " + key.skuId());
+            }
+            item.setProductSku(sku);
+            item.setProductName(product.getName() + " " + sku.getName());
+            item.setProductPrice(sku.getPrice());
+            item.setProductAttributes(sku.getAttributes());
+            if (sku.getImage() != null && !sku.getImage().isEmpty()) {
+                item.setProductImage(sku.getImage());
+            }
+        }
+
+        item.setQuantity(quantity);
+        item.setTotalPrice(item.getProductPrice().multiply(BigDecimal.valueOf(quantity)));
+        return item;
+    }
+}
@@ -1,16 +1,49 @@
 package com.mall.service;
 
+import com.mall.cache.ChangeBroadcaster;
+import com.mall.cache.ProductDetailCache;
+import com.mall.cache.ProductRankings;
+import com.mall.dto.CursorPage;
+import com.mall.dto.ProductCard;
+import com.mall.dto.ProductCursor;
+import com.mall.dto.ProductDetail;
+import com.mall.dto.ProductFacets;
+import com.mall.dto.SearchSuggestion;
 import com.mall.entity.Product;
+import com.mall.entity.ProductSku;
+import com.mall.inventory.InventoryService;
+import com.mall.inventory.SalesAggregator;
 import com.mall.repository.ProductRepository;
+import com.mall.repository.ProductSearchPlanner;
+import com.mall.search.IndexedProduct;
+import com.mall.search.ProductSearchIndex;
+import com.mall.search.SuggestIndex;
+import com.mall.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 商品服务类
@@ -19,9 +52,49 @@ import java.util.Optional;
 @Transactional
 public class ProductService {
 
+    // 批量查询的ID上限，以及未命中缓存时每条 IN 查询的ID数
+    private static final int MAX_BATCH_IDS = 1000;
+    private static final int BATCH_QUERY_SIZE = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchPlanner productSearchPlanner;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private SalesAggregator salesAggregator;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private ProductRankings productRankings;
+
+    @Autowired
+    private ChangeBroadcaster changeBroadcaster;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        changeBroadcaster.subscribeIds(ChangeBroadcaster.PRODUCTS, this::onRemoteChange);
+    }
+
     /**
      * 根据ID查找商品
      */
@@ -29,79 +102,230 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    /**
+     * 获取商品详情（二级缓存，命中时不开启事务，未命中时在只读事务中回源）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<ProductDetail> findDetailById(Long id) {
+        return Optional.ofNullable(productDetailCache.get(id, this::loadDetail));
+    }
+
+    /**
+     * 批量获取商品卡片（按请求顺序返回，忽略不存在的ID）
+     * 先取缓存中的商品详情，未命中的再分批一次投影查询（每次查询自带只读事务）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductCard> findCardsByIds(List<Long> ids) {
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("一次最多查询" + MAX_BATCH_IDS + "个商品");
+        }
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductCard> cards = new HashMap<>();
+        productDetailCache.getAllPresent(distinct)
+                .forEach((id, detail) -> cards.put(id, ProductCard.from(detail)));
+        List<Long> misses = new ArrayList<>();
+        for (Long id : distinct) {
+            if (!cards.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += BATCH_QUERY_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + BATCH_QUERY_SIZE, misses.size()));
+            productRepository.findCardsByIdIn(chunk).forEach(card -> cards.put(card.getId(), card));
+        }
+
+        List<ProductCard> result = new ArrayList<>(cards.size());
+        for (Long id : distinct) {
+            ProductCard card = cards.get(id);
+            if (card != null) {
+                result.add(card);
+            }
+        }
+        return result;
+    }
+
+    private ProductDetail loadDetail(Long id) {
+        return readOnly.execute(status -> productRepository.findById(id)
+                .map(ProductDetail::from)
+                .orElse(null));
+    }
+
     /**
      * 获取所有在售商品
      */
-    public Page<Product> findAllOnSale(Pageable pageable) {
-        return productRepository.findByStatusOrderBySortOrderDesc(Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> findAllOnSale(Pageable pageable) {
+        return productRepository.findCardsByStatus(Product.ProductStatus.ON_SALE, pageable);
     }
 
     /**
      * 根据分类查找商品
      */
-    public Page<Product> findByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndStatusOrderBySortOrderDesc(
-                categoryId, Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> findByCategory(Long categoryId, Pageable pageable) {
+        return productRepository.findCardsByCategory(categoryId, Product.ProductStatus.ON_SALE, pageable);
+    }
+
+    /**
+     * 游标分页获取在售商品（sort 为 default 或 sales，可按分类过滤）
+     */
+    public CursorPage<ProductCard> findOnSaleByCursor(String sort, Long categoryId, String cursor, int size) {
+        boolean bySales = "sales".equals(sort);
+        String mode = bySales ? "sales" : "default";
+        ProductCursor after = cursor != null && !cursor.isEmpty() ? ProductCursor.decode(cursor, mode) : null;
+        Pageable limit = PageRequest.of(0, size);
+        Product.ProductStatus status = Product.ProductStatus.ON_SALE;
+
+        Slice<ProductCard> slice;
+        if (bySales) {
+            if (categoryId != null) {
+                throw new IllegalArgumentException("按销量排序暂不支持分类过滤");
+            }
+            slice = after == null
+                    ? productRepository.seekCardsBySales(status, limit)
+                    : productRepository.seekCardsBySalesAfter(status, (int) after.getKey(), after.getId(), limit);
+        } else if (categoryId != null) {
+            slice = after == null
+                    ? productRepository.seekCategoryCardsBySortOrder(categoryId, status, limit)
+                    : productRepository.seekCategoryCardsBySortOrderAfter(
+                            categoryId, status, (int) after.getKey(), after.getId(), limit);
+        } else {
+            slice = after == null
+                    ? productRepository.seekCardsBySortOrder(status, limit)
+                    : productRepository.seekCardsBySortOrderAfter(status, (int) after.getKey(), after.getId(), limit);
+        }
+
+        List<ProductCard> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            ProductCard last = content.get(content.size() - 1);
+            long key = bySales ? valueOf(last.getSales()) : valueOf(last.getSortOrder());
+            nextCursor = new ProductCursor(mode, key, last.getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor, slice.hasNext());
+    }
+
+    private static long valueOf(Integer value) {
+        return value != null ? value : 0;
     }
 
     /**
      * 搜索商品
      */
-    public Page<Product> searchProducts(String keyword, Long categoryId, BigDecimal minPrice, 
-                                      BigDecimal maxPrice, String sortBy, Pageable pageable) {
-        return productRepository.searchProducts(keyword, categoryId, minPrice, maxPrice, sortBy, pageable);
+    public Page<ProductCard> searchProducts(String keyword, Long categoryId, BigDecimal minPrice,
+                                          BigDecimal maxPrice, String sortBy, Pageable pageable) {
+        if (!productSearchIndex.isReady()) {
+            return productSearchPlanner.search(keyword, categoryId, minPrice, maxPrice, sortBy, pageable);
+        }
+        Page<Long> ids = productSearchIndex.search(keyword, categoryId, minPrice, maxPrice, sortBy, pageable);
+        return new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * 搜索结果的分面计数（分类、标签、价格区间），索引未就绪时返回空
+     */
+    public Optional<ProductFacets> findSearchFacets(String keyword, Long categoryId,
+                                                    BigDecimal minPrice, BigDecimal maxPrice) {
+        if (!productSearchIndex.isReady()) {
+            return Optional.empty();
+        }
+        return Optional.of(productSearchIndex.facets(keyword, categoryId, minPrice, maxPrice));
+    }
+
+    /**
+     * 搜索框输入建议（商品名、关键词、分类，支持拼音首字母）
+     */
+    public List<SearchSuggestion> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
     }
 
     /**
      * 根据关键词搜索商品
      */
-    public Page<Product> searchByKeyword(String keyword, Pageable pageable) {
-        return productRepository.searchByKeyword(keyword, Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> searchByKeyword(String keyword, Pageable pageable) {
+        if (!productSearchIndex.isReady()) {
+            return productRepository.searchByKeyword(keyword, Product.ProductStatus.ON_SALE, pageable)
+                    .map(ProductCard::from);
+        }
+        Page<Long> ids = productSearchIndex.search(keyword, null, null, null, "default", pageable);
+        return new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * 按给定ID顺序批量加载商品卡片
+     */
+    private List<ProductCard> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductCard> cards = productRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+        return ids.stream()
+                .map(cards::get)
+                .filter(card -> card != null)
+                .collect(Collectors.toList());
     }
 
     /**
      * 获取热门商品
      */
-    public Page<Product> findHotProducts(Pageable pageable) {
-        return productRepository.findByIsHotTrueAndStatusOrderBySortOrderDesc(
-                Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> findHotProducts(Pageable pageable) {
+        if (productRankings.isReady()) {
+            return productRankings.page(ProductRankings.Ranking.HOT, pageable);
+        }
+        return productRepository.findHotCards(Product.ProductStatus.ON_SALE, pageable);
     }
 
     /**
      * 获取新品
      */
-    public Page<Product> findNewProducts(Pageable pageable) {
-        return productRepository.findByIsNewTrueAndStatusOrderBySortOrderDesc(
-                Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> findNewProducts(Pageable pageable) {
+        if (productRankings.isReady()) {
+            return productRankings.page(ProductRankings.Ranking.NEW, pageable);
+        }
+        return productRepository.findNewCards(Product.ProductStatus.ON_SALE, pageable);
     }
 
     /**
      * 获取推荐商品
      */
-    public Page<Product> findRecommendProducts(Pageable pageable) {
-        return productRepository.findByIsRecommendTrueAndStatusOrderBySortOrderDesc(
-                Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> findRecommendProducts(Pageable pageable) {
+        if (productRankings.isReady()) {
+            return productRankings.page(ProductRankings.Ranking.RECOMMEND, pageable);
+        }
+        return productRepository.findRecommendCards(Product.ProductStatus.ON_SALE, pageable);
     }
 
     /**
-     * 根据销量排序获取商品
+     * 根据销量排序获取商品（销量最多落后一个聚合回写间隔）
      */
-    public Page<Product> findBySales(Pageable pageable) {
-        return productRepository.findByStatusOrderBySalesDesc(Product.ProductStatus.ON_SALE, pageable);
+    public Page<ProductCard> findBySales(Pageable pageable) {
+        if (productRankings.isReady()) {
+            return productRankings.page(ProductRankings.Ranking.BEST_SELLING, pageable);
+        }
+        return productRepository.findCardsOrderBySales(Product.ProductStatus.ON_SALE, pageable);
     }
 
     /**
      * 获取相关商品
      */
-    public List<Product> findRelatedProducts(Long categoryId, Long productId, Pageable pageable) {
-        return productRepository.findRelatedProducts(categoryId, productId, pageable);
+    public List<ProductCard> findRelatedProducts(Long categoryId, Long productId, Pageable pageable) {
+        return productRepository.findRelatedCards(categoryId, productId, pageable);
     }
 
     /**
-     * 保存商品
+     * 保存商品。新商品可带初始库存；已有商品的库存须通过 {@link #setStock} 调整，销量只由订单累加
      */
     public Product save(Product product) {
-        return productRepository.save(product);
+        if (product.getId() != null) {
+            rejectStockChanges(product);
+        }
+        Product saved = productRepository.save(product);
+        reindex(List.of(saved));
+        return saved;
     }
 
     /**
@@ -109,32 +333,40 @@ public class ProductService {
      */
     public void deleteById(Long id) {
         productRepository.deleteById(id);
+        Runnable update = indexUpdate(List.of(), List.of(id));
+        TransactionHooks.afterCommit(() -> {
+            update.run();
+            productDetailCache.invalidate(id);
+            changeBroadcaster.publishIds(ChangeBroadcaster.PRODUCTS, List.of(id));
+        });
     }
 
     /**
-     * 更新商品库存
+     * 扣减商品库存（库存账本中原子预留，当前事务提交后确认、回滚后释放；库存不足时抛出异常）
      */
     public void updateStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
-        
-        if (product.getStock() < quantity) {
-            throw new RuntimeException("库存不足");
-        }
-        
-        product.setStock(product.getStock() - quantity);
-        productRepository.save(product);
+        inventoryService.deduct(productId, null, quantity);
     }
 
     /**
-     * 增加商品销量
+     * 设置商品或SKU的可售库存，事务提交后生效，随库存回写写入数据库
+     */
+    public void setStock(Long productId, Long skuId, int stock) {
+        inventoryService.setStock(productId, skuId, stock);
+    }
+
+    /**
+     * 增加商品销量（聚合后定时批量回写）
      */
     public void increaseSales(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
-        
-        product.setSales(product.getSales() + quantity);
-        productRepository.save(product);
+        salesAggregator.increase(productId, null, quantity);
+    }
+
+    /**
+     * 增加SKU及其商品的销量（聚合后定时批量回写）
+     */
+    public void increaseSales(Long productId, Long skuId, Integer quantity) {
+        salesAggregator.increase(productId, skuId, quantity);
     }
 
     /**
@@ -144,6 +376,7 @@ public class ProductService {
         List<Product> products = productRepository.findAllById(productIds);
         products.forEach(product -> product.setStatus(Product.ProductStatus.ON_SALE));
         productRepository.saveAll(products);
+        reindex(products);
     }
 
     /**
@@ -153,6 +386,7 @@ public class ProductService {
         List<Product> products = productRepository.findAllById(productIds);
         products.forEach(product -> product.setStatus(Product.ProductStatus.OFF_SALE));
         productRepository.saveAll(products);
+        reindex(products);
     }
 
     /**
@@ -168,4 +402,74 @@ public class ProductService {
     public long countOnSaleProducts() {
         return productRepository.countByStatus(Product.ProductStatus.ON_SALE);
     }
-}
\ No newline at end of file
+
+    /**
+     * 实体保存不写库存和销量列，调用方改过已有商品或SKU的这两个字段时拒绝保存，新增的SKU可带初始库存
+     */
+    private static void rejectStockChanges(Product product) {
+        List<ProductSku> skus = product.getSkus() != null && Hibernate.isInitialized(product.getSkus())
+                ? product.getSkus().stream().filter(sku -> sku.getId() != null).collect(Collectors.toList())
+                : List.of();
+        if (product.isStockChanged() || skus.stream().anyMatch(ProductSku::isStockChanged)) {
+            throw new IllegalArgumentException("已有商品的库存请通过库存接口调整");
+        }
+        if (product.isSalesChanged() || skus.stream().anyMatch(ProductSku::isSalesChanged)) {
+            throw new IllegalArgumentException("商品销量由订单累计，不能直接修改");
+        }
+    }
+
+    /**
+     * 事务提交后同步搜索索引、首页榜单，失效详情缓存并通知其他实例
+     */
+    private void reindex(List<Product> products) {
+        Runnable update = indexUpdate(products, List.of());
+        List<Long> ids = products.stream().map(Product::getId).collect(Collectors.toList());
+        TransactionHooks.afterCommit(() -> {
+            update.run();
+            productDetailCache.invalidateAll(ids);
+            changeBroadcaster.publishIds(ChangeBroadcaster.PRODUCTS, ids);
+        });
+    }
+
+    /**
+     * 其他实例提交的商品变更：重新加载这些商品后更新本实例的索引和榜单（详情缓存由其自身的失效消息处理）
+     */
+    private void onRemoteChange(List<Long> ids) {
+        Runnable update = readOnly.execute(status -> {
+            List<Product> products = productRepository.findAllById(ids);
+            Set<Long> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+            List<Long> deleted = ids.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+            return indexUpdate(products, deleted);
+        });
+        update.run();
+    }
+
+    /**
+     * 按商品当前状态生成索引、榜单和输入建议的更新动作；需在会话内调用，返回的动作可在事务外执行。
+     * 销量取数据库值加上已计入索引、尚未写入的销量，与索引中其他商品一致
+     */
+    private Runnable indexUpdate(List<Product> products, Collection<Long> deletedIds) {
+        List<IndexedProduct> documents = new ArrayList<>(products.size());
+        List<ProductCard> onSale = new ArrayList<>();
+        List<Long> removed = new ArrayList<>(deletedIds);
+        for (Product product : products) {
+            IndexedProduct document = IndexedProduct.from(product);
+            long pending = salesAggregator.getPendingSales(product.getId());
+            if (pending != 0) {
+                document = document.withSales((int) (document.getSales() + pending));
+            }
+            documents.add(document);
+            if (document.isOnSale()) {
+                onSale.add(ProductCard.from(product).withSales(document.getSales()));
+            } else {
+                removed.add(document.getId());
+            }
+        }
+        return () -> {
+            productSearchIndex.applyAll(documents);
+            deletedIds.forEach(productSearchIndex::remove);
+            productRankings.apply(onSale, removed);
+            suggestIndex.requestRebuild();
+        };
+    }
+}
@@ -2,16 +2,19 @@ package com.mall.service;
 
 import com.mall.entity.User;
 import com.mall.repository.UserRepository;
+import com.mall.security.LoginEventWriter;
 import com.mall.security.UserPrincipal;
+import com.mall.security.VerifiedTokenCache;
+import com.mall.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
@@ -19,7 +22,7 @@ import java.util.Optional;
  */
 @Service
 @Transactional
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
@@ -27,12 +30,31 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private LoginEventWriter loginEventWriter;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + username));
 
-        return UserPrincipal.create(user);
+        return UserPrincipal.createWithUser(user);
+    }
+
+    /**
+     * 登录成功且密码工作因子与当前配置不同时，由认证流程回调保存重新哈希的密码
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + userDetails.getUsername()));
+
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return UserPrincipal.createWithUser(user);
     }
 
     public UserDetails loadUserById(Long id) {
@@ -91,19 +113,16 @@ public class UserService implements UserDetailsService {
      * 更新用户信息
      */
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        invalidateTokens(saved.getId());
+        return saved;
     }
 
     /**
-     * 更新用户登录信息
+     * 更新用户登录信息（异步合并回写）
      */
     public void updateLoginInfo(Long userId, String ip) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-        
-        user.setLastLoginTime(LocalDateTime.now());
-        user.setLastLoginIp(ip);
-        userRepository.save(user);
+        loginEventWriter.record(userId, ip);
     }
 
     /**
@@ -177,6 +196,7 @@ public class UserService implements UserDetailsService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        invalidateTokens(user.getId());
     }
 
     /**
@@ -188,5 +208,13 @@ public class UserService implements UserDetailsService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        invalidateTokens(user.getId());
+    }
+
+    /**
+     * 事务提交后失效该用户已缓存的Token
+     */
+    private void invalidateTokens(Long userId) {
+        TransactionHooks.afterCommit(() -> tokenCache.invalidateUser(userId));
     }
 }
\ No newline at end of file
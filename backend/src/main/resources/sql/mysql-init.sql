@@ -80,9 +80,21 @@ CREATE TABLE IF NOT EXISTS products (
     INDEX idx_is_hot (is_hot),
     INDEX idx_is_new (is_new),
     INDEX idx_is_recommend (is_recommend),
+    INDEX idx_products_status_sort (status, sort_order, id),
+    INDEX idx_products_status_sales (status, sales, id),
+    INDEX idx_products_status_price (status, price, id),
+    INDEX idx_products_category_status_sort (category_id, status, sort_order, id),
+    INDEX idx_products_category_status_sales (category_id, status, sales, id),
+    INDEX idx_products_category_status_price (category_id, status, price, id),
     FOREIGN KEY (category_id) REFERENCES categories(id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- 主键号段表（mall.id.strategy=segment 时使用）
+CREATE TABLE IF NOT EXISTS id_segments (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_id BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- 插入初始数据
 INSERT INTO users (username, password, nickname, email, phone, member_level, growth_value, points, role) VALUES
 ('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iKTVKIFi', '系统管理员', 'admin@mall.com', '13800138000', '钻石会员', 10000, 1000, 'ADMIN'),
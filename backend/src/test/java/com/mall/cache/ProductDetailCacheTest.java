@@ -0,0 +1,137 @@
+package com.mall.cache;
+
+import com.mall.dto.ProductDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductDetailCacheTest {
+
+    private static final String CHANNEL = "mall:product:invalidate";
+
+    private LocalRemoteCache remoteCache;
+    private ProductDetailCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new LocalRemoteCache();
+        cache = newCache(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void loadsOnceThenServesFromLocalCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> detail(id, loads.incrementAndGet()));
+        ProductDetail second = cache.get(1L, id -> detail(id, loads.incrementAndGet()));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.getStock()).isEqualTo(1);
+        assertThat(remoteCache.get("mall:product:detail:1")).isNotNull();
+    }
+
+    @Test
+    void invalidationDuringLoadSkipsBackfill() {
+        ProductDetail loaded = cache.get(1L, id -> {
+            cache.invalidate(id);
+            return detail(id, 1);
+        });
+
+        assertThat(loaded.getStock()).isEqualTo(1);
+        assertThat(remoteCache.get("mall:product:detail:1")).isNull();
+        assertThat(cache.get(1L, id -> detail(id, 2)).getStock()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatingAnotherProductDoesNotBlockBackfill() {
+        cache.get(1L, id -> {
+            cache.invalidate(2L);
+            return detail(id, 1);
+        });
+
+        assertThat(remoteCache.get("mall:product:detail:1")).isNotNull();
+        assertThat(cache.get(1L, id -> detail(id, 2)).getStock()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateAllPublishesOneMessage() {
+        List<String> messages = new ArrayList<>();
+        remoteCache.subscribe(CHANNEL, messages::add);
+        for (long id = 1; id <= 3; id++) {
+            cache.get(id, id2 -> detail(id2, 1));
+        }
+
+        cache.invalidateAll(List.of(1L, 2L, 3L));
+
+        assertThat(messages).containsExactly("1,2,3");
+        assertThat(remoteCache.multiGet(List.of("mall:product:detail:1", "mall:product:detail:2",
+                "mall:product:detail:3"))).containsOnlyNulls();
+    }
+
+    @Test
+    void remoteInvalidationEvictsLocalCopies() {
+        ProductDetailCache other = newCache(Duration.ZERO);
+        try {
+            other.get(1L, id -> detail(id, 1));
+            other.get(2L, id -> detail(id, 1));
+
+            cache.invalidateAll(List.of(1L, 2L));
+
+            assertThat(other.get(1L, id -> detail(id, 5)).getStock()).isEqualTo(5);
+            assertThat(other.get(2L, id -> detail(id, 5)).getStock()).isEqualTo(5);
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void delayedDeleteRemovesStaleValueWrittenAfterInvalidation() throws InterruptedException {
+        cache.shutdown();
+        cache = newCache(Duration.ofMillis(50));
+
+        cache.invalidate(1L);
+        // 另一个实例在失效之后才写入它回源得到的旧值
+        remoteCache.set("mall:product:detail:1", ProductDetailCodec.encode(detail(1L, 1)), Duration.ofMinutes(30));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (remoteCache.get("mall:product:detail:1") != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(remoteCache.get("mall:product:detail:1")).isNull();
+    }
+
+    private ProductDetailCache newCache(Duration doubleDeleteDelay) {
+        ProductDetailCache created = new ProductDetailCache();
+        ReflectionTestUtils.setField(created, "remoteCache", remoteCache);
+        ReflectionTestUtils.setField(created, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(created, "localTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(created, "remoteTtl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(created, "doubleDeleteDelay", doubleDeleteDelay);
+        created.init();
+        return created;
+    }
+
+    private static ProductDetail detail(Long id, int stock) {
+        ProductDetail detail = new ProductDetail();
+        detail.setId(id);
+        detail.setName("商品" + id);
+        detail.setPrice(new BigDecimal("9.90"));
+        detail.setStock(stock);
+        detail.setSales(0);
+        return detail;
+    }
+}
@@ -0,0 +1,202 @@
+package com.mall.coupon;
+
+import com.mall.cache.RemoteCache;
+import com.mall.entity.Coupon;
+import com.mall.id.IdGenerator;
+import com.mall.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1 万次并发领券（每秒领取数）：不超发、不超过每人限领，批量写入后记录数与 used_count 一致；
+ * 两个实例共用计数器时同样不超发，发行量调整只生效一次
+ */
+@SpringBootTest(properties = {"mall.cache.redis.enabled=false", "logging.level.com.mall=WARN"})
+class CouponClaimConcurrencyTest {
+
+    private static final long COUPON_ID = 9_300_001L;
+    private static final long FIRST_USER_ID = 9_300_101L;
+    private static final int USERS = 200;
+    private static final int PER_LIMIT = 30;
+    private static final int TOTAL = 5000;
+
+    private static final String USER_SQL = "MERGE INTO users (id, username, password, nickname, status, role, " +
+            "member_level, growth_value, points, create_time, update_time, deleted) KEY (id) " +
+            "VALUES (?, ?, 'x', '领券测试', 'ACTIVE', 'USER', 'NORMAL', 0, 0, ?, ?, FALSE)";
+    private static final String COUPON_SQL = "MERGE INTO coupons (id, name, type, discount_amount, min_amount, " +
+            "start_time, end_time, total_count, used_count, per_limit, status, create_time, update_time, deleted) " +
+            "KEY (id) VALUES (?, '并发领券', 'NO_THRESHOLD', 5.00, 0, ?, ?, ?, 0, ?, 'ACTIVE', ?, ?, FALSE)";
+
+    @Autowired
+    private CouponClaimService couponClaimService;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp end = new Timestamp(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        for (int i = 0; i < USERS; i++) {
+            jdbcTemplate.update(USER_SQL, FIRST_USER_ID + i, "claim-user-" + i, now, now);
+        }
+        jdbcTemplate.update(COUPON_SQL, COUPON_ID, now, end, TOTAL, PER_LIMIT, now, now);
+        jdbcTemplate.update("DELETE FROM user_coupons WHERE coupon_id = ?", COUPON_ID);
+        couponClaimService.resync(COUPON_ID);
+    }
+
+    @Test
+    void concurrentClaimsNeverOverIssue() throws Exception {
+        Set<Long> ids = claimConcurrently(List.of(couponClaimService));
+        couponClaimService.flush();
+
+        assertIssued(ids);
+        for (int i = 0; i < USERS; i++) {
+            assertThat(couponClaimService.getClaimedCount(FIRST_USER_ID + i, COUPON_ID)).isLessThanOrEqualTo(PER_LIMIT);
+        }
+    }
+
+    @Test
+    void twoInstancesShareClaimCounters() throws Exception {
+        CouponClaimService other = otherInstance();
+
+        Set<Long> ids = claimConcurrently(List.of(couponClaimService, other));
+        couponClaimService.flush();
+        other.flush();
+
+        assertIssued(ids);
+        for (int i = 0; i < USERS; i++) {
+            long userId = FIRST_USER_ID + i;
+            assertThat(other.getClaimedCount(userId, COUPON_ID))
+                    .isEqualTo(couponClaimService.getClaimedCount(userId, COUPON_ID))
+                    .isLessThanOrEqualTo(PER_LIMIT);
+        }
+    }
+
+    @Test
+    void totalChangeAppliesOnceAcrossInstances() {
+        CouponClaimService other = otherInstance();
+        couponClaimService.claim(FIRST_USER_ID, COUPON_ID);
+
+        // 两个实例都收到发行量变更，剩余额度只增加一次
+        Coupon coupon = couponRepository.findById(COUPON_ID).orElseThrow();
+        coupon.setTotalCount(TOTAL + 10);
+        couponClaimService.update(coupon);
+        other.update(coupon);
+
+        int issued = 1;
+        while (true) {
+            try {
+                (issued % 2 == 0 ? couponClaimService : other).claim(FIRST_USER_ID + issued % USERS, COUPON_ID);
+                issued++;
+            } catch (RuntimeException e) {
+                break;
+            }
+        }
+        assertThat(issued).isEqualTo(TOTAL + 10);
+        couponClaimService.flush();
+        other.flush();
+    }
+
+    /**
+     * 与容器中的实例共用远程缓存（进程内替身）的另一个实例
+     */
+    private CouponClaimService otherInstance() {
+        CouponClaimService other = new CouponClaimService();
+        ReflectionTestUtils.setField(other, "couponRepository", couponRepository);
+        ReflectionTestUtils.setField(other, "remoteCache", remoteCache);
+        ReflectionTestUtils.setField(other, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(other, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(other, "idGenerator", idGenerator);
+        ReflectionTestUtils.setField(other, "maxAttempts", 5);
+        ReflectionTestUtils.setField(other, "lockTtl", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(other, "lockWait", Duration.ofSeconds(2));
+        other.init();
+        return other;
+    }
+
+    /**
+     * 多个线程轮流通过各实例领取，返回成功领取的用户优惠券ID
+     */
+    private Set<Long> claimConcurrently(List<CouponClaimService> instances) throws Exception {
+        int threads = 32;
+        int claims = 10_000;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                CouponClaimService instance = instances.get(t % instances.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int i;
+                    while ((i = next.getAndIncrement()) < claims) {
+                        try {
+                            ids.add(instance.claim(FIRST_USER_ID + i % USERS, COUPON_ID));
+                        } catch (RuntimeException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("Coupon claims: %d attempts by %d threads in %.3f s (%.0f claims/s, %d issued)%n",
+                    claims, threads, seconds, claims / seconds, ids.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(rejected.get()).isEqualTo(claims - ids.size());
+        return ids;
+    }
+
+    private void assertIssued(Set<Long> ids) {
+        assertThat(ids).hasSize(TOTAL);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_coupons WHERE coupon_id = ?",
+                Integer.class, COUPON_ID)).isEqualTo(TOTAL);
+        assertThat(jdbcTemplate.queryForObject("SELECT used_count FROM coupons WHERE id = ?",
+                Integer.class, COUPON_ID)).isEqualTo(TOTAL);
+        assertThat(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(c), 0) FROM (SELECT COUNT(*) c FROM user_coupons " +
+                "WHERE coupon_id = ? GROUP BY user_id) t", Integer.class, COUPON_ID)).isLessThanOrEqualTo(PER_LIMIT);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mall.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNumberGeneratorTest {
+
+    @Test
+    void numbersAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(7, false, "UTC");
+        int threads = 8;
+        int perThread = 100_000;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    String previous = "";
+                    for (int i = 0; i < perThread; i++) {
+                        String orderNo = generator.next();
+                        assertThat(orderNo.compareTo(previous)).isPositive();
+                        assertThat(seen.add(orderNo)).isTrue();
+                        previous = orderNo;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(seen).hasSize(threads * perThread);
+        assertThat(seen).allSatisfy(orderNo -> {
+            assertThat(OrderNumberGenerator.isValid(orderNo)).isTrue();
+            assertThat(orderNo.substring(17, 19)).isEqualTo("07");
+        });
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(100, false, "UTC"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void requiresExplicitNodeIdWhenConfigured() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(-1, true, "UTC"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsNegativeNodeIdOtherThanUnset() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(-2, false, "UTC"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void formatsTimeInConfiguredZone() {
+        DateTimeFormatter hour = DateTimeFormatter.ofPattern("yyyyMMddHH");
+        ZoneId zone = ZoneId.of("Asia/Shanghai");
+        String before = LocalDateTime.now(zone).format(hour);
+        String orderNo = new OrderNumberGenerator(1, false, "Asia/Shanghai").next();
+        String after = LocalDateTime.now(zone).format(hour);
+
+        assertThat(orderNo.substring(0, 10)).isIn(before, after);
+    }
+
+    @Test
+    void detectsCorruptedCheckDigit() {
+        String orderNo = new OrderNumberGenerator(1, false, "UTC").next();
+        char last = orderNo.charAt(OrderNumberGenerator.LENGTH - 1);
+        String corrupted = orderNo.substring(0, OrderNumberGenerator.LENGTH - 1) + (char) ('0' + (last - '0' + 1) % 10);
+
+        assertThat(OrderNumberGenerator.isValid(orderNo)).isTrue();
+        assertThat(OrderNumberGenerator.isValid(corrupted)).isFalse();
+    }
+}
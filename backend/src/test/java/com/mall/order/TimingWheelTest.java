@@ -0,0 +1,95 @@
+package com.mall.order;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 100 万个支付截止时间：内存占用、每刻度推进耗时，取消（已支付）的订单不会到期
+ */
+class TimingWheelTest {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int ORDERS = 1_000_000;
+    private static final int TIMEOUT_TICKS = 1800;
+
+    @Test
+    void millionDeadlinesStayCompactAndExpireOnTime() {
+        TimingWheel wheel = new TimingWheel(0, TICK_MILLIS, 8, 4);
+        for (int key = 1; key <= ORDERS; key++) {
+            wheel.schedule(key, deadline(key));
+        }
+        assertThat(wheel.size()).isEqualTo(ORDERS);
+
+        long bytes = footprint(wheel);
+        System.out.printf("Timing wheel: %d deadlines in %.1f MB (%.1f bytes each)%n",
+                ORDERS, bytes / 1048576.0, (double) bytes / ORDERS);
+        assertThat(bytes / ORDERS).isLessThanOrEqualTo(64);
+
+        // 每三个订单中有一个已支付
+        for (int key = 3; key <= ORDERS; key += 3) {
+            assertThat(wheel.cancel(key)).isTrue();
+        }
+        assertThat(wheel.cancel(3)).isFalse();
+
+        BitSet expired = new BitSet(ORDERS + 1);
+        long maxTickNanos = 0;
+        long totalNanos = 0;
+        for (long tick = 1; tick <= TIMEOUT_TICKS; tick++) {
+            long now = tick * TICK_MILLIS;
+            long begin = System.nanoTime();
+            long[] keys = wheel.advance(now);
+            long elapsed = System.nanoTime() - begin;
+            totalNanos += elapsed;
+            maxTickNanos = Math.max(maxTickNanos, elapsed);
+            for (long key : keys) {
+                assertThat(key % 3).isNotZero();
+                // 在截止时间所在的刻度到期（首个刻度之前的截止时间在首个刻度到期）
+                assertThat(Math.max(deadline(key) / TICK_MILLIS, 1)).isEqualTo(tick);
+                assertThat(expired.get((int) key)).isFalse();
+                expired.set((int) key);
+            }
+        }
+        System.out.printf("Timing wheel: %d ticks, avg %.3f ms, max %.3f ms%n",
+                TIMEOUT_TICKS, totalNanos / 1e6 / TIMEOUT_TICKS, maxTickNanos / 1e6);
+
+        assertThat(expired.cardinality()).isEqualTo(ORDERS - ORDERS / 3);
+        assertThat(wheel.size()).isZero();
+        assertThat(maxTickNanos).isLessThan(1_000_000_000L);
+    }
+
+    @Test
+    void rescheduleMovesDeadline() {
+        TimingWheel wheel = new TimingWheel(0, TICK_MILLIS, 8, 4);
+        wheel.schedule(1, 5 * TICK_MILLIS);
+        wheel.schedule(1, 600 * TICK_MILLIS);
+
+        assertThat(wheel.advance(10 * TICK_MILLIS)).isEmpty();
+        assertThat(wheel.advance(601 * TICK_MILLIS)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    /**
+     * 截止时间在 30 分钟内均匀分布，且不落在刻度边界上
+     */
+    private static long deadline(long key) {
+        return (key % TIMEOUT_TICKS) * TICK_MILLIS + key % (TICK_MILLIS - 1) + 1;
+    }
+
+    /**
+     * 条目数组和索引数组的总字节数
+     */
+    private static long footprint(TimingWheel wheel) {
+        long bytes = 0;
+        for (String field : new String[]{"keys", "deadlines", "indexKeys"}) {
+            bytes += 8L * ((long[]) ReflectionTestUtils.getField(wheel, field)).length;
+        }
+        for (String field : new String[]{"next", "prev", "slots", "indexValues", "heads"}) {
+            bytes += 4L * ((int[]) ReflectionTestUtils.getField(wheel, field)).length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mall.repository;
+
+import com.mall.repository.ProductSearchPlannerTest.SearchShape;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MySQL 上每种搜索形状的执行计划（EXPLAIN）：
+ * 没有价格区间时走排序列对应的复合索引且不额外排序；带价格区间时价格排序走价格索引且不额外排序，
+ * 其他排序由优化器在价格索引（范围扫描后排序）和排序索引（按序扫描过滤）之间选择。
+ * 需要一个空的 MySQL 库（按实体建表，结束后删除），未指定 mall.test.mysql.url 时跳过；
+ * 通过 mvn -Pmysql-explain test -Dmysql.url=... 运行，见 pom.xml
+ */
+@EnabledIfSystemProperty(named = "mall.test.mysql.url", matches = ".+")
+@SpringBootTest(properties = {"mall.cache.redis.enabled=false", "logging.level.com.mall=WARN",
+        "spring.datasource.url=${mall.test.mysql.url}",
+        "spring.datasource.username=${mall.test.mysql.username:root}",
+        "spring.datasource.password=${mall.test.mysql.password:}",
+        "spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.mall.repository.ProductSearchPlannerTest$Recorder"})
+class ProductSearchMySqlPlanTest {
+
+    private static final long FIRST_CATEGORY_ID = 9_400_201L;
+    private static final long FIRST_PRODUCT_ID = 9_410_001L;
+    private static final int CATEGORIES = 20;
+    private static final int PRODUCTS = 20_000;
+
+    private static final String CATEGORY_SQL = "INSERT INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) VALUES (?, '执行计划测试', 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "INSERT INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) VALUES (?, ?, ?, ?, 100, ?, ?, ?, ?, ?, FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    @Autowired
+    private ProductSearchPlanner productSearchPlanner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyShapeUsesItsCompositeIndex() {
+        seed();
+        for (SearchShape shape : SearchShape.all(FIRST_CATEGORY_ID)) {
+            Map<String, Object> plan = explain(shape);
+            String index = String.valueOf(plan.get("key")).toUpperCase();
+            String extra = String.valueOf(plan.get("Extra"));
+
+            if (!shape.hasPriceRange() || shape.sort().startsWith("price_")) {
+                assertThat(index).as("%s: %s", shape, plan)
+                        .isEqualTo(shape.hasPriceRange() ? shape.rangeIndex() : shape.sortIndex());
+                assertThat(extra).as("%s: %s", shape, plan).doesNotContain("Using filesort");
+            } else {
+                assertThat(index).as("%s: %s", shape, plan).isIn(Set.of(shape.rangeIndex(), shape.sortIndex()));
+            }
+        }
+    }
+
+    /**
+     * 分类、价格、销量、排序值分散，约五分之一下架，收集统计信息后优化器才能按选择性取舍索引
+     */
+    private void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(new Object[]{FIRST_CATEGORY_ID + i, now, now});
+        }
+        jdbcTemplate.batchUpdate(CATEGORY_SQL, categories);
+
+        List<Object[]> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            BigDecimal price = BigDecimal.valueOf(10 + (i * 37L) % 1000);
+            products.add(new Object[]{FIRST_PRODUCT_ID + i, (i % 2 == 0 ? "Zeta 手机 " : "配件 ") + i, price,
+                    price.add(BigDecimal.TEN), (i * 53) % 5000, i % 5 == 0 ? "OFF_SALE" : "ON_SALE",
+                    FIRST_CATEGORY_ID + i % CATEGORIES, i % 3 == 0 ? "ZetaPhone 旗舰" : "配件", i % 10, now, now});
+        }
+        jdbcTemplate.batchUpdate(PRODUCT_SQL, products);
+        jdbcTemplate.execute("ANALYZE TABLE products");
+    }
+
+    /**
+     * 执行规划的查询，取其生成的 SQL 按相同参数做 EXPLAIN，返回商品表所在的一行
+     */
+    private Map<String, Object> explain(SearchShape shape) {
+        String sql = ProductSearchPlannerTest.capturedSql(productSearchPlanner, shape);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, shape.args());
+        assertThat(rows).as(sql).hasSize(1);
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,256 @@
+package com.mall.repository;
+
+import com.mall.dto.ProductCard;
+import com.mall.search.ProductSearchIndex;
+import com.mall.search.ProductTokenizer;
+import com.mall.service.ProductService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 数据库搜索的执行计划（H2 EXPLAIN）走复合索引，且结果与内存搜索索引一致。
+ * H2 只在排序列位于索引最前面时才按索引顺序免排序，因此这里核对的是访问路径（等值和范围条件命中的索引）；
+ * 每种形状实际选用的索引和是否免排序由 {@link ProductSearchMySqlPlanTest} 在 MySQL 上核对
+ */
+@SpringBootTest(properties = {"mall.cache.redis.enabled=false", "logging.level.com.mall=WARN",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.mall.repository.ProductSearchPlannerTest$Recorder"})
+class ProductSearchPlannerTest {
+
+    private static final long CATEGORY_ID = 9_400_001L;
+    private static final long FIRST_PRODUCT_ID = 9_400_101L;
+    private static final int PRODUCTS = 12;
+    private static final String[] SORTS = {"price_asc", "price_desc", "sales", "default"};
+    // H2 执行计划中表名后的注释：/* PUBLIC.索引名 ... */
+    private static final Pattern PLAN_INDEX = Pattern.compile("/\\* PUBLIC\\.(\\w+)");
+
+    private static final String CATEGORY_SQL = "MERGE INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) KEY (id) VALUES (?, '检索测试', 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "MERGE INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) KEY (id) VALUES (?, ?, ?, ?, 100, ?, 'OFF_SALE', ?, ?, ?, " +
+            "FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    @Autowired
+    private ProductSearchPlanner productSearchPlanner;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(CATEGORY_SQL, CATEGORY_ID, now, now);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            long id = FIRST_PRODUCT_ID + i;
+            // 价格、销量、排序值成组重复，检验同值时的 id 排序
+            BigDecimal price = BigDecimal.valueOf(100 + (i % 3) * 50);
+            String name = (i % 2 == 0 ? "Zeta 手机" : "zeta 平板") + " 型号" + i;
+            jdbcTemplate.update(PRODUCT_SQL, id, name, price, price.add(BigDecimal.TEN), i % 4,
+                    CATEGORY_ID, i % 3 == 0 ? "ZetaPhone 旗舰" : "配件", i % 2, now, now);
+            ids.add(id);
+        }
+        // 上架并写入内存搜索索引
+        productService.batchOnSale(ids);
+    }
+
+    @Test
+    void searchIndexesExist() {
+        assertThat(indexColumns("IDX_PRODUCTS_STATUS_SORT")).containsExactly("STATUS", "SORT_ORDER", "ID");
+        assertThat(indexColumns("IDX_PRODUCTS_STATUS_SALES")).containsExactly("STATUS", "SALES", "ID");
+        assertThat(indexColumns("IDX_PRODUCTS_STATUS_PRICE")).containsExactly("STATUS", "PRICE", "ID");
+        assertThat(indexColumns("IDX_PRODUCTS_CATEGORY_STATUS_SORT"))
+                .containsExactly("CATEGORY_ID", "STATUS", "SORT_ORDER", "ID");
+        assertThat(indexColumns("IDX_PRODUCTS_CATEGORY_STATUS_SALES"))
+                .containsExactly("CATEGORY_ID", "STATUS", "SALES", "ID");
+        assertThat(indexColumns("IDX_PRODUCTS_CATEGORY_STATUS_PRICE"))
+                .containsExactly("CATEGORY_ID", "STATUS", "PRICE", "ID");
+    }
+
+    /**
+     * 全部 64 种形状（分类 × 最低价 × 最高价 × 关键词 × 排序）。
+     * 带价格区间时走对应的价格索引；没有价格区间时走 (status, …) 或 (category_id, status, …) 前缀的索引，
+     * H2 在等值列之后的排序列上不计入排序收益，同前缀的几个索引代价相同，具体选哪个由 MySQL 测试核对
+     */
+    @Test
+    void everyShapeUsesCompositeIndex() {
+        for (SearchShape shape : SearchShape.all(CATEGORY_ID)) {
+            String index = index(explain(shape));
+            if (shape.hasPriceRange()) {
+                assertThat(index).as(shape.toString()).isEqualTo(shape.rangeIndex());
+            } else {
+                assertThat(index).as(shape.toString()).startsWith(shape.indexPrefix());
+            }
+        }
+    }
+
+    @Test
+    void resultsMatchInMemoryIndex() {
+        String[] keywords = {null, "zeta", "ZETAPHONE", "手机", "zeta 平板", "phone", "型号1"};
+        for (String keyword : keywords) {
+            for (String sort : SORTS) {
+                for (BigDecimal minPrice : new BigDecimal[]{null, BigDecimal.valueOf(150)}) {
+                    PageRequest page = PageRequest.of(0, PRODUCTS);
+                    List<Long> planned = productSearchPlanner
+                            .search(keyword, CATEGORY_ID, minPrice, null, sort, page)
+                            .getContent().stream().map(ProductCard::getId).collect(Collectors.toList());
+                    List<Long> indexed = productSearchIndex
+                            .search(keyword, CATEGORY_ID, minPrice, null, sort, page).getContent();
+
+                    assertThat(planned).as("keyword=%s sort=%s minPrice=%s", keyword, sort, minPrice)
+                            .isEqualTo(indexed);
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行规划的查询，取其生成的 SQL 按相同参数做 EXPLAIN
+     */
+    private String explain(SearchShape shape) {
+        String sql = capturedSql(productSearchPlanner, shape);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, shape.args()).toUpperCase();
+    }
+
+    /**
+     * 执行计划中商品表使用的索引名，全表扫描时为表名
+     */
+    private static String index(String plan) {
+        Matcher matcher = PLAN_INDEX.matcher(plan);
+        assertThat(matcher.find()).as(plan).isTrue();
+        return matcher.group(1);
+    }
+
+    /**
+     * 执行一次规划的查询，返回 Hibernate 生成的分页查询语句（不含计数查询）
+     */
+    static String capturedSql(ProductSearchPlanner planner, SearchShape shape) {
+        Recorder.STATEMENTS.clear();
+        planner.search(shape.keyword(), shape.categoryId(), shape.minPrice(), shape.maxPrice(), shape.sort(),
+                PageRequest.of(0, SearchShape.PAGE_SIZE));
+        return Recorder.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().startsWith("select")
+                        && !statement.toLowerCase().contains("count("))
+                .findFirst().orElseThrow();
+    }
+
+    private List<String> indexColumns(String indexName) {
+        return jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                "WHERE TABLE_NAME = 'PRODUCTS' AND INDEX_NAME = ? ORDER BY ORDINAL_POSITION", String.class, indexName);
+    }
+
+    /**
+     * 一种搜索形状：出现的筛选条件、关键词和排序方式
+     */
+    record SearchShape(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, String sort) {
+
+        static final int PAGE_SIZE = 5;
+
+        /**
+         * 分类、最低价、最高价、关键词四个条件有无的全部组合与四种排序
+         */
+        static List<SearchShape> all(long categoryId) {
+            List<SearchShape> shapes = new ArrayList<>();
+            for (int filters = 0; filters < 16; filters++) {
+                for (String sort : SORTS) {
+                    shapes.add(new SearchShape(
+                            (filters & 8) != 0 ? "zeta 手机" : null,
+                            (filters & 1) != 0 ? categoryId : null,
+                            (filters & 2) != 0 ? BigDecimal.valueOf(120) : null,
+                            (filters & 4) != 0 ? BigDecimal.valueOf(180) : null,
+                            sort));
+                }
+            }
+            return shapes;
+        }
+
+        boolean hasPriceRange() {
+            return minPrice != null || maxPrice != null;
+        }
+
+        String indexPrefix() {
+            return categoryId != null ? "IDX_PRODUCTS_CATEGORY_STATUS_" : "IDX_PRODUCTS_STATUS_";
+        }
+
+        /**
+         * 排序列对应的索引
+         */
+        String sortIndex() {
+            return indexPrefix() + switch (sort) {
+                case "price_asc", "price_desc" -> "PRICE";
+                case "sales" -> "SALES";
+                default -> "SORT";
+            };
+        }
+
+        /**
+         * 价格区间对应的索引
+         */
+        String rangeIndex() {
+            return indexPrefix() + "PRICE";
+        }
+
+        /**
+         * 查询参数，顺序与查询条件的拼接顺序一致，最后是分页条数
+         */
+        Object[] args() {
+            List<Object> args = new ArrayList<>();
+            if (categoryId != null) {
+                args.add(categoryId);
+            }
+            args.add("ON_SALE");
+            if (minPrice != null) {
+                args.add(minPrice);
+            }
+            if (maxPrice != null) {
+                args.add(maxPrice);
+            }
+            if (keyword != null) {
+                for (String term : ProductTokenizer.queryTerms(keyword)) {
+                    args.add("%" + term + "%");
+                    args.add("%" + term + "%");
+                }
+            }
+            args.add(PAGE_SIZE);
+            return args.toArray();
+        }
+    }
+
+    /**
+     * 记录 Hibernate 执行的 SQL
+     */
+    public static class Recorder implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
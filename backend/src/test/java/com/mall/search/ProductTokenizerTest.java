@@ -0,0 +1,32 @@
+package com.mall.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductTokenizerTest {
+
+    @Test
+    void indexesWordSuffixesForSubstringMatching() {
+        Set<String> terms = ProductTokenizer.indexTerms("Apple iPhone");
+
+        assertThat(terms).contains("apple", "iphone", "phone", "hone");
+    }
+
+    @Test
+    void indexesCjkUnigramsAndBigrams() {
+        Set<String> terms = ProductTokenizer.indexTerms("苹果手机");
+
+        assertThat(terms).contains("苹", "果", "手", "机", "苹果", "果手", "手机");
+    }
+
+    @Test
+    void queryUsesBigramsForMultiCharacterCjk() {
+        List<String> terms = ProductTokenizer.queryTerms("Phone 手机壳");
+
+        assertThat(terms).containsExactly("phone", "手机", "机壳");
+    }
+}
@@ -0,0 +1,162 @@
+package com.mall.service;
+
+import com.mall.cache.RemoteCache;
+import com.mall.cart.CartWriteBehind;
+import com.mall.dto.CartItemView;
+import com.mall.id.IdGenerator;
+import com.mall.repository.ProductRepository;
+import com.mall.repository.ProductSkuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两个节点并发修改同一用户的购物车：不丢失累加、不产生重复购物车项；写回先后颠倒时不会复活已删除的购物车项
+ */
+@SpringBootTest(properties = {"mall.cache.redis.enabled=false", "logging.level.com.mall=WARN"})
+class CartConcurrencyTest {
+
+    private static final long USER_ID = 9_500_001L;
+    private static final long CATEGORY_ID = 9_500_011L;
+    private static final long PRODUCT_ID = 9_500_101L;
+
+    private static final String USER_SQL = "MERGE INTO users (id, username, password, nickname, status, role, " +
+            "member_level, growth_value, points, create_time, update_time, deleted) KEY (id) " +
+            "VALUES (?, 'cart-user', 'x', '购物车测试', 'ACTIVE', 'USER', 'NORMAL', 0, 0, ?, ?, FALSE)";
+    private static final String CATEGORY_SQL = "MERGE INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) KEY (id) VALUES (?, '购物车测试', 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "MERGE INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) KEY (id) VALUES (?, '购物车商品', 99.00, 109.00, 1000, 0, 'ON_SALE', ?, '购物车', 0, " +
+            "FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSkuRepository productSkuRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(USER_SQL, USER_ID, now, now);
+        jdbcTemplate.update(CATEGORY_SQL, CATEGORY_ID, now, now);
+        jdbcTemplate.update(PRODUCT_SQL, PRODUCT_ID, CATEGORY_ID, now, now);
+        jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", USER_ID);
+        remoteCache.delete("mall:cart:" + USER_ID);
+    }
+
+    @Test
+    void twoNodesAddingSameProductKeepOneItem() throws Exception {
+        CartWriteBehind firstWriter = writeBehind();
+        CartWriteBehind secondWriter = writeBehind();
+        CartService first = node(firstWriter);
+        CartService second = node(secondWriter);
+
+        int threads = 16;
+        int addsPerThread = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                CartService node = t % 2 == 0 ? first : second;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < addsPerThread; i++) {
+                        node.addToCart(USER_ID, PRODUCT_ID, null, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        firstWriter.flush();
+        secondWriter.flush();
+
+        int total = threads * addsPerThread;
+        for (CartService node : List.of(first, second)) {
+            List<CartItemView> items = node.getCartItems(USER_ID);
+            assertThat(items).hasSize(1);
+            assertThat(items.get(0).getQuantity()).isEqualTo(total);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE user_id = ? AND deleted = FALSE",
+                Integer.class, USER_ID)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE user_id = ? AND deleted = FALSE",
+                Integer.class, USER_ID)).isEqualTo(total);
+    }
+
+    @Test
+    void lateWriteBackDoesNotResurrectRemovedItem() {
+        CartWriteBehind firstWriter = writeBehind();
+        CartWriteBehind secondWriter = writeBehind();
+        CartService first = node(firstWriter);
+        CartService second = node(secondWriter);
+
+        first.addToCart(USER_ID, PRODUCT_ID, null, 2);
+        Long itemId = second.getCartItems(USER_ID).get(0).getId();
+        second.removeItems(USER_ID, List.of(itemId));
+
+        // 删除所在节点先写回，新增所在节点后写回
+        secondWriter.flush();
+        firstWriter.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT deleted FROM cart_items WHERE id = ?",
+                Boolean.class, itemId)).isTrue();
+        // 缓存丢失后从数据库重建
+        remoteCache.delete("mall:cart:" + USER_ID);
+        assertThat(first.getCartItems(USER_ID)).isEmpty();
+    }
+
+    /**
+     * 与容器中的实例共用远程缓存（进程内替身）的另一个节点
+     */
+    private CartService node(CartWriteBehind cartWriteBehind) {
+        CartService node = new CartService();
+        ReflectionTestUtils.setField(node, "remoteCache", remoteCache);
+        ReflectionTestUtils.setField(node, "cartWriteBehind", cartWriteBehind);
+        ReflectionTestUtils.setField(node, "idGenerator", idGenerator);
+        ReflectionTestUtils.setField(node, "productRepository", productRepository);
+        ReflectionTestUtils.setField(node, "productSkuRepository", productSkuRepository);
+        ReflectionTestUtils.setField(node, "ttl", Duration.ofDays(7));
+        ReflectionTestUtils.setField(node, "lockTtl", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(node, "lockWait", Duration.ofSeconds(10));
+        return node;
+    }
+
+    private CartWriteBehind writeBehind() {
+        CartWriteBehind writeBehind = new CartWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writeBehind, "maxAttempts", 5);
+        return writeBehind;
+    }
+}
@@ -0,0 +1,182 @@
+package com.mall.service;
+
+import com.mall.dto.OrderCreateRequest;
+import com.mall.dto.OrderView;
+import com.mall.dto.ProductCard;
+import com.mall.entity.Order;
+import com.mall.inventory.InventoryService;
+import com.mall.inventory.SalesAggregator;
+import com.mall.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多线程并发下单（每秒订单数）：库存在账本中原子预留，不超卖、不死锁，回写后数据库库存一致；
+ * 支付后的订单计入商品销量
+ */
+@SpringBootTest(properties = {"mall.cache.redis.enabled=false", "logging.level.com.mall=WARN"})
+class OrderConcurrencyTest {
+
+    private static final long CATEGORY_ID = 9_200_001L;
+    private static final long SCARCE_ID = 9_200_101L;
+    private static final long PLENTIFUL_ID = 9_200_102L;
+    private static final int SCARCE_STOCK = 200;
+    private static final int PLENTIFUL_STOCK = 10_000;
+
+    private static final String CATEGORY_SQL = "MERGE INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) KEY (id) VALUES (?, '下单测试', 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "MERGE INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) KEY (id) VALUES (?, ?, 10.00, 12.00, ?, 0, 'ON_SALE', ?, '下单', 0, " +
+            "FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private SalesAggregator salesAggregator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(CATEGORY_SQL, CATEGORY_ID, now, now);
+        jdbcTemplate.update(PRODUCT_SQL, SCARCE_ID, "限量商品", SCARCE_STOCK, CATEGORY_ID, now, now);
+        jdbcTemplate.update(PRODUCT_SQL, PLENTIFUL_ID, "常规商品", PLENTIFUL_STOCK, CATEGORY_ID, now, now);
+        inventoryService.resync(SCARCE_ID, null);
+        inventoryService.resync(PLENTIFUL_ID, null);
+        userId = userRepository.findByUsername("testuser").orElseThrow().getId();
+    }
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        int threads = 16;
+        int ordersPerThread = 50;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                // 一半线程的订单行顺序相反，验证多行预留与行顺序无关
+                boolean reversed = t % 2 == 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        try {
+                            orderService.createOrder(userId, request(reversed));
+                            created.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("Orders: %d attempts by %d threads in %.3f s (%.0f orders/s, %d created)%n",
+                    threads * ordersPerThread, threads, seconds, threads * ordersPerThread / seconds, created.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        inventoryService.flush();
+
+        assertThat(created.get()).isEqualTo(SCARCE_STOCK);
+        assertThat(rejected.get()).isEqualTo(threads * ordersPerThread - SCARCE_STOCK);
+        assertThat(stock(SCARCE_ID)).isZero();
+        assertThat(stock(PLENTIFUL_ID)).isEqualTo(PLENTIFUL_STOCK - SCARCE_STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM order_items " +
+                "WHERE product_id = ?", Integer.class, SCARCE_ID)).isEqualTo(SCARCE_STOCK);
+    }
+
+    @Test
+    void paidOrderCountsTowardsSales() {
+        int quantity = 5000;
+        // 测试数据由 SQL 写入，先上架以载入首页榜单
+        productService.batchOnSale(List.of(PLENTIFUL_ID));
+        OrderCreateRequest request = request(false);
+        request.setItems(List.of(line(PLENTIFUL_ID, quantity)));
+        OrderView order = orderService.createOrder(userId, request);
+
+        salesAggregator.flush();
+        assertThat(sales(PLENTIFUL_ID)).isZero();
+
+        orderService.payOrder(userId, order.getId(), Order.PaymentMethod.ALIPAY);
+        salesAggregator.flush();
+
+        assertThat(sales(PLENTIFUL_ID)).isEqualTo(quantity);
+        ProductCard top = productService.findBySales(PageRequest.of(0, 1)).getContent().get(0);
+        assertThat(top.getId()).isEqualTo(PLENTIFUL_ID);
+        assertThat(top.getSales()).isEqualTo(quantity);
+    }
+
+    private static OrderCreateRequest request(boolean reversed) {
+        List<OrderCreateRequest.Line> lines = new ArrayList<>();
+        lines.add(line(SCARCE_ID));
+        lines.add(line(PLENTIFUL_ID));
+        if (reversed) {
+            Collections.reverse(lines);
+        }
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setItems(lines);
+        request.setReceiverName("测试");
+        request.setReceiverPhone("13800000000");
+        request.setReceiverAddress("测试地址");
+        return request;
+    }
+
+    private static OrderCreateRequest.Line line(long productId) {
+        return line(productId, 1);
+    }
+
+    private static OrderCreateRequest.Line line(long productId, int quantity) {
+        OrderCreateRequest.Line line = new OrderCreateRequest.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private int sales(long productId) {
+        return jdbcTemplate.queryForObject("SELECT sales FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private int stock(long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
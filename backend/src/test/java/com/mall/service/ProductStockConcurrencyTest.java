@@ -0,0 +1,207 @@
+package com.mall.service;
+
+import com.mall.cache.ProductDetailCache;
+import com.mall.cache.RemoteCache;
+import com.mall.entity.Product;
+import com.mall.inventory.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 热点商品并发扣减库存（库存账本）：不超卖、回滚释放、两个实例共用账本不超卖、回写后数据库一致，
+ * 实体保存不覆盖库存、显式修改库存被拒绝
+ */
+@SpringBootTest(properties = {"mall.cache.redis.enabled=false", "logging.level.com.mall=WARN"})
+class ProductStockConcurrencyTest {
+
+    private static final long CATEGORY_ID = 9_100_001L;
+    private static final long PRODUCT_ID = 9_100_101L;
+    private static final int STOCK = 1000;
+
+    private static final String CATEGORY_SQL = "MERGE INTO categories (id, name, level, sort_order, is_show, " +
+            "status, create_time, update_time, deleted) KEY (id) VALUES (?, '热点测试', 1, 0, TRUE, 'ACTIVE', ?, ?, FALSE)";
+    private static final String PRODUCT_SQL = "MERGE INTO products (id, name, price, original_price, stock, " +
+            "sales, status, category_id, keywords, sort_order, is_hot, is_new, is_recommend, create_time, " +
+            "update_time, deleted) KEY (id) VALUES (?, '热点商品', 99.00, 109.00, ?, 0, 'ON_SALE', ?, '热点', 0, " +
+            "FALSE, FALSE, FALSE, ?, ?, FALSE)";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RemoteCache remoteCache;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(CATEGORY_SQL, CATEGORY_ID, now, now);
+        jdbcTemplate.update(PRODUCT_SQL, PRODUCT_ID, STOCK, CATEGORY_ID, now, now);
+        inventoryService.resync(PRODUCT_ID, null);
+    }
+
+    @Test
+    void concurrentDeductionsNeverOversell() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 100;
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            productService.updateStock(PRODUCT_ID, 1);
+                            succeeded.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("Hot SKU: %d deductions by %d threads in %.3f s (%.0f ops/s)%n",
+                    threads * attemptsPerThread, threads, seconds, threads * attemptsPerThread / seconds);
+        } finally {
+            executor.shutdownNow();
+        }
+        inventoryService.flush();
+
+        assertThat(succeeded.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(threads * attemptsPerThread - STOCK);
+        assertThat(inventoryService.getAvailableStock(PRODUCT_ID, null)).isZero();
+        assertThat(databaseStock()).isZero();
+    }
+
+    @Test
+    void twoInstancesShareOneLedger() throws Exception {
+        // 第二个实例与容器中的实例共用同一个远程缓存（进程内替身），模拟集群中的另一个节点
+        InventoryService other = new InventoryService();
+        ReflectionTestUtils.setField(other, "remoteCache", remoteCache);
+        ReflectionTestUtils.setField(other, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(other, "productDetailCache", productDetailCache);
+        ReflectionTestUtils.setField(other, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(other, "flushLockTtl", Duration.ofSeconds(30));
+        other.init();
+
+        int threads = 16;
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                InventoryService node = t % 2 == 0 ? inventoryService : other;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            node.deduct(PRODUCT_ID, null, 1);
+                            succeeded.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            // 库存不足
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        other.flush();
+        inventoryService.flush();
+
+        assertThat(succeeded.get()).isEqualTo(STOCK);
+        assertThat(databaseStock()).isZero();
+    }
+
+    @Test
+    void rolledBackDeductionReturnsStock() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            productService.updateStock(PRODUCT_ID, 10);
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT_ID, null)).isEqualTo(STOCK);
+        assertThat(databaseStock()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void savingStaleEntityKeepsDeductedStock() {
+        Product stale = productService.findById(PRODUCT_ID).orElseThrow();
+        productService.updateStock(PRODUCT_ID, 5);
+
+        stale.setName("热点商品（改名）");
+        productService.save(stale);
+        inventoryService.flush();
+
+        assertThat(databaseStock()).isEqualTo(STOCK - 5);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM products WHERE id = ?", String.class, PRODUCT_ID))
+                .isEqualTo("热点商品（改名）");
+    }
+
+    @Test
+    void stockEditsGoThroughInventory() {
+        Product product = productService.findById(PRODUCT_ID).orElseThrow();
+        product.setStock(1);
+        assertThatThrownBy(() -> productService.save(product)).isInstanceOf(IllegalArgumentException.class);
+
+        productService.updateStock(PRODUCT_ID, 10);
+        productService.setStock(PRODUCT_ID, null, 50);
+        assertThat(inventoryService.getAvailableStock(PRODUCT_ID, null)).isEqualTo(50);
+
+        inventoryService.flush();
+        assertThat(databaseStock()).isEqualTo(50);
+    }
+
+    private int databaseStock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, PRODUCT_ID);
+    }
+}